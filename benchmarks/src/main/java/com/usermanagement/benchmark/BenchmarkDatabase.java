@@ -0,0 +1,151 @@
+package com.usermanagement.benchmark;
+
+import com.usermanagement.config.CaffeineRegionFactory;
+import com.usermanagement.dao.UserIdSequenceInitializer;
+import com.usermanagement.model.User;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.hibernate.SessionFactory;
+import org.springframework.orm.hibernate5.HibernateTransactionManager;
+import org.springframework.orm.hibernate5.LocalSessionFactoryBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+/**
+ * In-memory H2 database with the application's Hibernate mapping and cache
+ * settings, filled with synthetic users through plain JDBC batches.
+ * <p>
+ * Row {@code i} has username {@code user<i>}, email {@code user<i>@example.com}
+ * and is created one second after row {@code i - 1}. One row in 100 is
+ * SUSPENDED, one in 3 INACTIVE and the rest ACTIVE.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private static final int INSERT_BATCH = 1000;
+
+    final BasicDataSource dataSource;
+    final SessionFactory sessionFactory;
+
+    private final TransactionTemplate readTx;
+    private final TransactionTemplate writeTx;
+
+    BenchmarkDatabase(String name) {
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setUrl("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaxTotal(16);
+
+        Properties properties = new Properties();
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("hibernate.hbm2ddl.auto", "create");
+        properties.put("hibernate.jdbc.batch_size", "20");
+        properties.put("hibernate.order_inserts", "true");
+        properties.put("hibernate.order_updates", "true");
+        properties.put("hibernate.jdbc.fetch_size", "50");
+        properties.put("hibernate.cache.use_second_level_cache", "true");
+        properties.put("hibernate.cache.use_query_cache", "true");
+        properties.put("hibernate.cache.region.factory_class", CaffeineRegionFactory.class.getName());
+        properties.put("hibernate.javax.cache.provider",
+                "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        properties.put("hibernate.javax.cache.missing_cache_strategy", "create");
+        // Several databases can live in one JVM and share the JCache manager
+        properties.put("hibernate.cache.region_prefix", name);
+        properties.put(CaffeineRegionFactory.PREFIX + "default.max_size", "1000");
+        properties.put(CaffeineRegionFactory.PREFIX + "default.ttl_seconds", "300");
+        properties.put(CaffeineRegionFactory.PREFIX + "users.max_size", "10000");
+        properties.put(CaffeineRegionFactory.PREFIX + "users.ttl_seconds", "600");
+        properties.put(CaffeineRegionFactory.PREFIX + "users-natural-id.max_size", "10000");
+        properties.put(CaffeineRegionFactory.PREFIX + "users-natural-id.ttl_seconds", "600");
+
+        sessionFactory = new LocalSessionFactoryBuilder(dataSource)
+                .addAnnotatedClasses(User.class)
+                .addProperties(properties)
+                .buildSessionFactory();
+
+        HibernateTransactionManager transactionManager = new HibernateTransactionManager(sessionFactory);
+        readTx = new TransactionTemplate(transactionManager);
+        readTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    static String username(long row) {
+        return "user" + row;
+    }
+
+    static String email(long row) {
+        return "user" + row + "@example.com";
+    }
+
+    /**
+     * Inserts rows {@code firstRow..firstRow + rows - 1} with ids starting at {@code firstId}.
+     */
+    void populate(long firstId, long firstRow, int rows) throws SQLException {
+        String sql = "INSERT INTO users (id, username, email, password, first_name, last_name, " +
+                "phone_number, status, role, created_at, updated_at, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            for (int i = 0; i < rows; i++) {
+                long row = firstRow + i;
+                Timestamp createdAt = Timestamp.valueOf(EPOCH.plusSeconds(row));
+                insert.setLong(1, firstId + i);
+                insert.setString(2, username(row));
+                insert.setString(3, email(row));
+                insert.setString(4, "secret123");
+                insert.setString(5, "First" + row);
+                insert.setString(6, "Last" + row);
+                insert.setString(7, String.format("%010d", row));
+                insert.setString(8, status(row).name());
+                insert.setString(9, User.UserRole.USER.name());
+                insert.setTimestamp(10, createdAt);
+                insert.setTimestamp(11, createdAt);
+                insert.addBatch();
+                if ((i + 1) % INSERT_BATCH == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+
+        UserIdSequenceInitializer sequence = new UserIdSequenceInitializer();
+        sequence.setSessionFactory(sessionFactory);
+        sequence.setMinimumId(firstId);
+        sequence.alignWithExistingIds();
+    }
+
+    static User.UserStatus status(long row) {
+        if (row % 100 == 0) {
+            return User.UserStatus.SUSPENDED;
+        }
+        return row % 3 == 0 ? User.UserStatus.INACTIVE : User.UserStatus.ACTIVE;
+    }
+
+    <T> T read(Supplier<T> work) {
+        return readTx.execute(status -> work.get());
+    }
+
+    <T> T write(Supplier<T> work) {
+        return writeTx.execute(status -> work.get());
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("DROP ALL OBJECTS");
+        }
+        sessionFactory.close();
+        dataSource.close();
+    }
+}
@@ -0,0 +1,41 @@
+package com.usermanagement.benchmark;
+
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detached sample users for the benchmarks that do not touch a database.
+ */
+final class BenchmarkUsers {
+
+    private BenchmarkUsers() {
+    }
+
+    static User user(long row) {
+        User user = new User();
+        user.setId(row);
+        user.setUsername(BenchmarkDatabase.username(row));
+        user.setEmail(BenchmarkDatabase.email(row));
+        user.setPassword("secret123");
+        user.setFirstName("First" + row);
+        user.setLastName("Last" + row);
+        user.setPhoneNumber(String.format("%010d", row));
+        user.setStatus(BenchmarkDatabase.status(row));
+        user.setRole(User.UserRole.USER);
+        user.setCreatedAt(BenchmarkDatabase.EPOCH.plusSeconds(row));
+        user.setUpdatedAt(BenchmarkDatabase.EPOCH.plusSeconds(row));
+        user.setVersion(0L);
+        return user;
+    }
+
+    static List<UserDTO> dtos(int count) {
+        List<UserDTO> dtos = new ArrayList<>(count);
+        for (int row = 1; row <= count; row++) {
+            dtos.add(new UserDTO(user(row)));
+        }
+        return dtos;
+    }
+}
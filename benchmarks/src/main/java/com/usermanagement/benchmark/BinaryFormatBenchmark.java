@@ -0,0 +1,90 @@
+package com.usermanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usermanagement.config.JacksonConfig;
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.dto.UserListResponse;
+import com.usermanagement.dto.UserPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON vs Smile vs CBOR with the ObjectMappers from {@link JacksonConfig}:
+ * encode and decode time for a single user and a {@code GET /api/users}
+ * page. Payload sizes are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"100"})
+    public int listSize;
+
+    private ObjectMapper mapper;
+    private UserDTO user;
+    private UserListResponse page;
+    private byte[] userBytes;
+    private byte[] pageBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        JacksonConfig config = new JacksonConfig();
+        switch (format) {
+            case "smile":
+                mapper = config.smileObjectMapper();
+                break;
+            case "cbor":
+                mapper = config.cborObjectMapper();
+                break;
+            default:
+                mapper = config.objectMapper();
+        }
+        user = new UserDTO(BenchmarkUsers.user(42));
+        List<UserDTO> users = BenchmarkUsers.dtos(listSize);
+        page = UserListResponse.of(new UserPage(users, "MjAyMC0wMS0wMVQwMDowMDo0MnwxMDA", listSize), 1_000_000L);
+        userBytes = mapper.writeValueAsBytes(user);
+        pageBytes = mapper.writeValueAsBytes(page);
+        System.out.printf("%n%s payload: user %d bytes, page of %d users %d bytes%n",
+                format, userBytes.length, listSize, pageBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeUser() throws Exception {
+        return mapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public UserDTO decodeUser() throws Exception {
+        return mapper.readValue(userBytes, UserDTO.class);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    // Clients read the page generically; UserListResponse is write-only
+    @Benchmark
+    public Object decodePage() throws Exception {
+        return mapper.readTree(pageBytes);
+    }
+}
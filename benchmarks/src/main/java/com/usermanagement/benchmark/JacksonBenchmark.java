@@ -0,0 +1,93 @@
+package com.usermanagement.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usermanagement.config.JacksonConfig;
+import com.usermanagement.config.UserListHttpMessageConverter;
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.dto.UserListResponse;
+import com.usermanagement.dto.UserPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialization with the ObjectMapper the REST controllers use.
+ * The list cases compare the old response map of {@code GET /api/users}
+ * with the streaming {@link UserListHttpMessageConverter}; run with
+ * {@code -prof gc} to compare allocation per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonBenchmark {
+
+    @Param({"20", "100"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private UserDTO user;
+    private byte[] userJson;
+    private Map<String, Object> listResponse;
+    private UserListResponse streamedListResponse;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new JacksonConfig().objectMapper();
+        user = new UserDTO(BenchmarkUsers.user(42));
+        userJson = objectMapper.writeValueAsBytes(user);
+
+        List<UserDTO> users = BenchmarkUsers.dtos(listSize);
+        listResponse = new HashMap<>();
+        listResponse.put("users", users);
+        listResponse.put("count", users.size());
+        listResponse.put("totalCount", 1_000_000L);
+        listResponse.put("limit", listSize);
+        listResponse.put("hasMore", true);
+        listResponse.put("nextCursor", "MjAyMC0wMS0wMVQwMDowMDo0MnwxMDA");
+        streamedListResponse = UserListResponse.of(
+                new UserPage(users, "MjAyMC0wMS0wMVQwMDowMDo0MnwxMDA", listSize), 1_000_000L);
+    }
+
+    @Benchmark
+    public byte[] serializeSingle() throws Exception {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return objectMapper.writeValueAsBytes(listResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeListStreaming() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            UserListHttpMessageConverter.write(generator, streamedListResponse);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public UserDTO deserializeSingle() throws Exception {
+        return objectMapper.readValue(userJson, UserDTO.class);
+    }
+}
@@ -0,0 +1,138 @@
+package com.usermanagement.benchmark;
+
+import com.usermanagement.dao.ShardedUserDAO;
+import com.usermanagement.dao.UserDAO;
+import com.usermanagement.dao.UserDAOImpl;
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.model.User;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Throughput of the single-database {@link UserDAOImpl} against
+ * {@link ShardedUserDAO} over in-memory H2 shards holding the same number
+ * of users in total. All shards share this JVM's CPUs, so the numbers
+ * show routing and scatter-gather overhead rather than added capacity.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ShardedUserDAOBenchmark {
+
+    @Param({"1", "2", "4"})
+    public int shards;
+
+    @Param({"100000"})
+    public int rows;
+
+    private final List<BenchmarkDatabase> databases = new ArrayList<>();
+    private UserDAO dao;
+    private BenchmarkDatabase transactions;
+    private int rowsPerShard;
+    private final AtomicLong created = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        rowsPerShard = rows / shards;
+        List<SessionFactory> sessionFactories = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            BenchmarkDatabase db = new BenchmarkDatabase("shard" + shard);
+            db.populate(Math.max(1, (long) shard << ShardedUserDAO.SHARD_ID_BITS),
+                    (long) shard * rowsPerShard + 1, rowsPerShard);
+            databases.add(db);
+            sessionFactories.add(db.sessionFactory);
+        }
+
+        if (shards == 1) {
+            UserDAOImpl single = new UserDAOImpl();
+            single.setSessionFactory(sessionFactories.get(0));
+            dao = single;
+            transactions = databases.get(0);
+        } else {
+            // The sharded DAO opens its own per-shard transactions
+            ShardedUserDAO sharded = new ShardedUserDAO();
+            sharded.setShards(sessionFactories);
+            sharded.init();
+            dao = sharded;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        for (BenchmarkDatabase db : databases) {
+            db.close();
+        }
+    }
+
+    private <T> T call(Supplier<T> work, boolean readOnly) {
+        if (transactions == null) {
+            return work.get();
+        }
+        return readOnly ? transactions.read(work) : transactions.write(work);
+    }
+
+    private long randomId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long shard = random.nextInt(shards);
+        long row = random.nextLong(1, rowsPerShard + 1);
+        return shard == 0 ? row : (shard << ShardedUserDAO.SHARD_ID_BITS) + row - 1;
+    }
+
+    @Benchmark
+    public Optional<UserDTO> findDTOById() {
+        long id = randomId();
+        return call(() -> dao.findDTOById(id), true);
+    }
+
+    @Benchmark
+    public Optional<User> findByUsername() {
+        String username = BenchmarkDatabase.username(ThreadLocalRandom.current().nextLong(1, rows + 1));
+        return call(() -> dao.findByUsername(username), true);
+    }
+
+    @Benchmark
+    public List<UserDTO> findPageFirst() {
+        return call(() -> dao.findPage(null, null, null, 20), true);
+    }
+
+    @Benchmark
+    public long count() {
+        return call(() -> dao.count(), true);
+    }
+
+    @Benchmark
+    public User save() {
+        long n = created.incrementAndGet();
+        User user = BenchmarkUsers.user(0);
+        user.setId(null);
+        user.setVersion(null);
+        user.setUsername("new" + n);
+        user.setEmail("new" + n + "@example.com");
+        return call(() -> dao.save(user), false);
+    }
+}
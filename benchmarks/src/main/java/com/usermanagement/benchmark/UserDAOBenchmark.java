@@ -0,0 +1,221 @@
+package com.usermanagement.benchmark;
+
+import com.usermanagement.dao.UserDAOImpl;
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every {@link UserDAOImpl} query against an in-memory H2 database, each
+ * call wrapped in a transaction like the service layer does. Lookups pick a
+ * random existing row, so the second-level cache is exercised the way a
+ * production working set would exercise it.
+ * <p>
+ * The full-table reads ({@code findAll}, {@code findAllDTOs}) load every row
+ * and get slow at the larger sizes; exclude them with a regex when only
+ * point lookups matter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class UserDAOBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private BenchmarkDatabase db;
+    private UserDAOImpl dao;
+    private LocalDateTime middleCreatedAt;
+    private final AtomicLong created = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        db = new BenchmarkDatabase("dao");
+        db.populate(1, 1, rows);
+
+        dao = new UserDAOImpl();
+        dao.setSessionFactory(db.sessionFactory);
+        dao.setBatchSize(20);
+        dao.setStreamFetchSize(100);
+
+        middleCreatedAt = BenchmarkDatabase.EPOCH.plusSeconds(rows / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+    }
+
+    private long randomRow() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    // ---- point lookups ----
+
+    @Benchmark
+    public Optional<User> findById() {
+        long id = randomRow();
+        return db.read(() -> dao.findById(id));
+    }
+
+    @Benchmark
+    public Optional<UserDTO> findDTOById() {
+        long id = randomRow();
+        return db.read(() -> dao.findDTOById(id));
+    }
+
+    @Benchmark
+    public List<User> findAllByIds100() {
+        List<Long> ids = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            ids.add(randomRow());
+        }
+        return db.read(() -> dao.findAllByIds(ids));
+    }
+
+    @Benchmark
+    public Optional<User> findByUsername() {
+        String username = BenchmarkDatabase.username(randomRow());
+        return db.read(() -> dao.findByUsername(username));
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        String email = BenchmarkDatabase.email(randomRow());
+        return db.read(() -> dao.findByEmail(email));
+    }
+
+    @Benchmark
+    public boolean existsById() {
+        long id = randomRow();
+        return db.read(() -> dao.existsById(id));
+    }
+
+    @Benchmark
+    public boolean existsByUsername() {
+        String username = BenchmarkDatabase.username(randomRow());
+        return db.read(() -> dao.existsByUsername(username));
+    }
+
+    @Benchmark
+    public boolean existsByEmail() {
+        String email = BenchmarkDatabase.email(randomRow());
+        return db.read(() -> dao.existsByEmail(email));
+    }
+
+    @Benchmark
+    public List<Object[]> findUsernameEmailPairs20() {
+        List<String> usernames = new ArrayList<>(20);
+        List<String> emails = new ArrayList<>(20);
+        for (int i = 0; i < 20; i++) {
+            usernames.add(BenchmarkDatabase.username(randomRow()));
+            emails.add(BenchmarkDatabase.email(randomRow()));
+        }
+        return db.read(() -> dao.findUsernameEmailPairs(usernames, emails));
+    }
+
+    // ---- pages and filtered lists ----
+
+    @Benchmark
+    public List<UserDTO> findPageFirst() {
+        return db.read(() -> dao.findPage(null, null, null, 20));
+    }
+
+    @Benchmark
+    public List<UserDTO> findPageDeep() {
+        return db.read(() -> dao.findPage(null, middleCreatedAt, (long) rows / 2, 20));
+    }
+
+    @Benchmark
+    public List<UserDTO> findPageByStatus() {
+        return db.read(() -> dao.findPage(User.UserStatus.SUSPENDED, middleCreatedAt, (long) rows / 2, 20));
+    }
+
+    // Projection vs entity for the same 1% of rows
+    @Benchmark
+    public List<User> findByStatusEntities() {
+        return db.read(() -> dao.findByStatus(User.UserStatus.SUSPENDED));
+    }
+
+    @Benchmark
+    public List<UserDTO> findByStatusProjection() {
+        return db.read(() -> dao.findDTOsByStatus(User.UserStatus.SUSPENDED));
+    }
+
+    @Benchmark
+    public void streamByStatus(Blackhole blackhole) {
+        db.read(() -> {
+            dao.streamByStatus(User.UserStatus.SUSPENDED, blackhole::consume);
+            return null;
+        });
+    }
+
+    @Benchmark
+    public List<User> findAll() {
+        return db.read(() -> dao.findAll());
+    }
+
+    @Benchmark
+    public List<UserDTO> findAllDTOs() {
+        return db.read(() -> dao.findAllDTOs());
+    }
+
+    // ---- aggregates ----
+
+    @Benchmark
+    public long count() {
+        return db.read(() -> dao.count());
+    }
+
+    @Benchmark
+    public List<Object[]> countByStatusAndRole() {
+        return db.read(() -> dao.countByStatusAndRole());
+    }
+
+    // ---- writes ----
+
+    @Benchmark
+    public User save() {
+        long n = created.incrementAndGet();
+        User user = BenchmarkUsers.user(0);
+        user.setId(null);
+        user.setVersion(null);
+        user.setUsername("new" + n);
+        user.setEmail("new" + n + "@example.com");
+        return db.write(() -> dao.save(user));
+    }
+
+    @Benchmark
+    public int updateFields() {
+        long id = randomRow();
+        Map<String, Object> fields = Collections.singletonMap("phoneNumber",
+                String.format("%010d", ThreadLocalRandom.current().nextInt(1_000_000_000)));
+        return db.write(() -> dao.updateFields(id, fields, null));
+    }
+}
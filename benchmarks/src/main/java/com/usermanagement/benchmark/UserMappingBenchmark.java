@@ -0,0 +1,47 @@
+package com.usermanagement.benchmark;
+
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO conversion done on every request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMappingBenchmark {
+
+    private User user;
+    private UserDTO dto;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkUsers.user(42);
+        dto = new UserDTO(user);
+    }
+
+    @Benchmark
+    public UserDTO entityToDto() {
+        return new UserDTO(user);
+    }
+
+    @Benchmark
+    public User dtoToEntity() {
+        return dto.toEntity();
+    }
+}
@@ -0,0 +1,66 @@
+package com.usermanagement.loadtest;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.scan.StandardJarScanner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the web app (web.xml, applicationContext.xml, dispatcher-servlet.xml)
+ * in an embedded Tomcat on a free port, backed by an in-memory H2 database.
+ */
+final class EmbeddedServer implements AutoCloseable {
+
+    static final String CONTEXT_PATH = "/user-management";
+
+    private final Tomcat tomcat = new Tomcat();
+
+    /**
+     * @param smallSendBuffers shrink socket send buffers so a change feed
+     *                         client that stops reading blocks the server's
+     *                         writes within seconds rather than megabytes
+     */
+    EmbeddedServer(Path webapp, boolean smallSendBuffers) throws IOException, LifecycleException {
+        // Picked up by the property placeholder ahead of database.properties
+        System.setProperty("db.driver", "org.h2.Driver");
+        System.setProperty("db.url", "jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        System.setProperty("db.username", "sa");
+        System.setProperty("db.password", "");
+        System.setProperty("db.streamFetchSize", "100");
+        System.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        System.setProperty("hibernate.hbm2ddl.auto", "create");
+        System.setProperty("hibernate.show_sql", "false");
+        System.setProperty("hibernate.format_sql", "false");
+        // The load generator is one client at hundreds of rps and seeds through bulk imports,
+        // which the production admission limits would reject; -Dadmission.enabled=true tests them
+        if (System.getProperty("admission.enabled") == null) {
+            System.setProperty("admission.enabled", "false");
+        }
+
+        tomcat.setBaseDir(Files.createTempDirectory("loadtest-tomcat").toString());
+        tomcat.setPort(0);
+        tomcat.getConnector();
+        if (smallSendBuffers) {
+            tomcat.getConnector().setProperty("socket.txBufSize", "16384");
+        }
+
+        Context context = tomcat.addWebapp(CONTEXT_PATH, webapp.toAbsolutePath().toString());
+        // The JSTL TLDs come from the classpath; the manifest Class-Path chains do not matter
+        ((StandardJarScanner) context.getJarScanner()).setScanManifest(false);
+        tomcat.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + tomcat.getConnector().getLocalPort() + CONTEXT_PATH;
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
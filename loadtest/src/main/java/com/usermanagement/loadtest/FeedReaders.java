@@ -0,0 +1,129 @@
+package com.usermanagement.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change feed subscribers that run alongside the workload: some that never
+ * read their stream, and one that reads normally. A stalled reader must not
+ * hold up the events of the live one, so the run fails if the live reader is
+ * asked to resync, is disconnected, or goes longer than {@code maxGapSeconds}
+ * without an event while writes are flowing.
+ */
+final class FeedReaders implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedReaders.class);
+
+    // Small enough that a stalled stream fills its socket within a few dozen events
+    private static final int STALLED_RECEIVE_BUFFER = 1024;
+
+    private final String changesUrl;
+    private final List<Socket> stalled = new ArrayList<>();
+    private final Thread liveReader;
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong lastEventNanos = new AtomicLong();
+    private final AtomicLong maxGapNanos = new AtomicLong();
+    private volatile HttpURLConnection live;
+    private volatile String failure;
+    private volatile boolean closing;
+
+    FeedReaders(String baseUrl, int stalledReaders) throws IOException {
+        this.changesUrl = baseUrl + "/api/users/changes";
+        URI uri = URI.create(changesUrl);
+        for (int i = 0; i < stalledReaders; i++) {
+            Socket socket = new Socket();
+            socket.setReceiveBufferSize(STALLED_RECEIVE_BUFFER);
+            socket.connect(new InetSocketAddress(uri.getHost(), uri.getPort()));
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + uri.getPath() + " HTTP/1.1\r\nHost: " + uri.getHost()
+                    + "\r\nAccept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            stalled.add(socket);
+        }
+
+        liveReader = new Thread(this::readLive, "feed-live-reader");
+        liveReader.setDaemon(true);
+        liveReader.start();
+        logger.info("Opened {} stalled change feed reader(s) and one live reader", stalledReaders);
+    }
+
+    private void readLive() {
+        try {
+            live = (HttpURLConnection) new URL(changesUrl).openConnection();
+            live.setRequestProperty("Accept", "text/event-stream");
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(live.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("id:")) {
+                        long now = System.nanoTime();
+                        long previous = lastEventNanos.getAndSet(now);
+                        if (previous != 0) {
+                            maxGapNanos.accumulateAndGet(now - previous, Math::max);
+                        }
+                        events.incrementAndGet();
+                    } else if (line.startsWith("event:") && line.contains("resync")) {
+                        failure = "live change feed reader was asked to resync";
+                    }
+                }
+            }
+            if (!closing && failure == null) {
+                failure = "live change feed reader was disconnected";
+            }
+        } catch (IOException e) {
+            if (!closing && failure == null) {
+                failure = "live change feed reader failed: " + e;
+            }
+        }
+    }
+
+    /** Problems seen by the live reader, empty when it kept up. */
+    List<String> check(int maxGapSeconds) {
+        List<String> failures = new ArrayList<>();
+        if (failure != null) {
+            failures.add(failure);
+        }
+        if (events.get() == 0) {
+            failures.add("live change feed reader received no events");
+        }
+        long gapSeconds = TimeUnit.NANOSECONDS.toSeconds(maxGapNanos.get());
+        if (gapSeconds > maxGapSeconds) {
+            failures.add(String.format("live change feed reader went %ds without an event (limit %ds)",
+                    gapSeconds, maxGapSeconds));
+        }
+        logger.info("Live change feed reader received {} events, longest gap {}ms",
+                events.get(), TimeUnit.NANOSECONDS.toMillis(maxGapNanos.get()));
+        return failures;
+    }
+
+    @Override
+    public void close() {
+        closing = true;
+        for (Socket socket : stalled) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.debug("Closing stalled reader: {}", e.toString());
+            }
+        }
+        HttpURLConnection connection = live;
+        if (connection != null) {
+            connection.disconnect();
+        }
+    }
+}
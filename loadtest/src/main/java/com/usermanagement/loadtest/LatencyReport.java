@@ -0,0 +1,166 @@
+package com.usermanagement.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-operation HDR latency histograms (recorded in microseconds) plus error
+ * counts, with JSON/.hgrm output and a baseline regression check.
+ */
+final class LatencyReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyReport.class);
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> results = new EnumMap<>(Operation.class);
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    LatencyReport(Iterable<Operation> operations) {
+        for (Operation operation : operations) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        recorders.get(operation).recordValue(Math.max(micros, 1));
+        if (!success) {
+            errors.get(operation).incrementAndGet();
+        }
+    }
+
+    /**
+     * Freezes the recorded histograms and builds the summary for the run.
+     */
+    ObjectNode summarize(LoadTestConfig config) {
+        ObjectNode summary = mapper.createObjectNode();
+        summary.put("rate", config.rate);
+        summary.put("durationSeconds", config.durationSeconds);
+        summary.put("mix", config.mix.toString());
+        ObjectNode operations = summary.putObject("operations");
+        for (Map.Entry<Operation, Recorder> entry : recorders.entrySet()) {
+            Histogram histogram = entry.getValue().getIntervalHistogram();
+            results.put(entry.getKey(), histogram);
+
+            ObjectNode stats = operations.putObject(entry.getKey().getLabel());
+            stats.put("count", histogram.getTotalCount());
+            stats.put("errors", errors.get(entry.getKey()).get());
+            stats.put("throughput", round((double) histogram.getTotalCount() / config.durationSeconds));
+            stats.put("p50Ms", millis(histogram, 50.0));
+            stats.put("p99Ms", millis(histogram, 99.0));
+            stats.put("p999Ms", millis(histogram, 99.9));
+            stats.put("maxMs", round(histogram.getMaxValue() / MICROS_PER_MILLI));
+        }
+        return summary;
+    }
+
+    void print(ObjectNode summary, PrintStream out) {
+        out.printf("%-14s %8s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        summary.get("operations").fields().forEachRemaining(entry -> {
+            JsonNode stats = entry.getValue();
+            out.printf("%-14s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(),
+                    stats.get("count").asLong(),
+                    stats.get("errors").asLong(),
+                    stats.get("throughput").asDouble(),
+                    stats.get("p50Ms").asDouble(),
+                    stats.get("p99Ms").asDouble(),
+                    stats.get("p999Ms").asDouble(),
+                    stats.get("maxMs").asDouble());
+        });
+    }
+
+    /**
+     * Writes summary.json and one percentile distribution (.hgrm, in
+     * milliseconds) per operation, loadable in the HdrHistogram plotter.
+     */
+    void write(ObjectNode summary, Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        mapper.writeValue(reportDir.resolve("summary.json").toFile(), summary);
+        for (Map.Entry<Operation, Histogram> entry : results.entrySet()) {
+            Path file = reportDir.resolve(entry.getKey().getLabel() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+                entry.getValue().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        logger.info("Wrote report to {}", reportDir.toAbsolutePath());
+    }
+
+    void writeBaseline(ObjectNode summary, Path baseline) throws IOException {
+        mapper.writeValue(baseline.toFile(), summary);
+        logger.info("Wrote baseline to {}", baseline.toAbsolutePath());
+    }
+
+    /**
+     * Compares p50 and p99 against the baseline. p99.9 and max are reported but
+     * not gated: over a short run they hinge on a handful of samples.
+     *
+     * @return one message per regression, empty if the run is within tolerance
+     */
+    List<String> compareToBaseline(ObjectNode summary, Path baseline, double tolerancePercent) throws IOException {
+        JsonNode expected = mapper.readTree(baseline.toFile()).path("operations");
+        double factor = 1 + tolerancePercent / 100.0;
+        List<String> regressions = new ArrayList<>();
+        summary.get("operations").fields().forEachRemaining(entry -> {
+            JsonNode base = expected.path(entry.getKey());
+            if (base.isMissingNode()) {
+                return;
+            }
+            for (String metric : new String[] {"p50Ms", "p99Ms"}) {
+                double limit = base.path(metric).asDouble() * factor;
+                double actual = entry.getValue().get(metric).asDouble();
+                if (base.has(metric) && actual > limit) {
+                    regressions.add(String.format("%s %s %.2f ms exceeds baseline %.2f ms (+%.0f%%)",
+                            entry.getKey(), metric, actual, base.get(metric).asDouble(), tolerancePercent));
+                }
+            }
+        });
+        return regressions;
+    }
+
+    /**
+     * @return operations whose error rate is above the given percentage
+     */
+    List<String> checkErrors(ObjectNode summary, double maxErrorPercent) {
+        List<String> failures = new ArrayList<>();
+        summary.get("operations").fields().forEachRemaining(entry -> {
+            long count = entry.getValue().get("count").asLong();
+            long failed = entry.getValue().get("errors").asLong();
+            if (count > 0 && failed * 100.0 / count > maxErrorPercent) {
+                failures.add(String.format("%s failed %d of %d requests", entry.getKey(), failed, count));
+            }
+        });
+        return failures;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return round(histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
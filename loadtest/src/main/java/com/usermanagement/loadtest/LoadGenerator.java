@@ -0,0 +1,134 @@
+package com.usermanagement.loadtest;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model workload: requests are scheduled at a fixed rate regardless of
+ * how quickly earlier ones complete, and latency is measured from each
+ * request's intended start time. A slow server therefore shows up as queueing
+ * delay in the histograms instead of silently lowering the offered load
+ * (coordinated omission).
+ */
+final class LoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private final UserApiClient client;
+    private final ExecutorService workers;
+    private final LatencyReport report;
+    private final List<ObjectNode> users;
+    private final Operation[] schedule;
+    private final AtomicLong createdUsers = new AtomicLong();
+
+    LoadGenerator(UserApiClient client, ExecutorService workers, LatencyReport report,
+                  List<ObjectNode> users, Map<Operation, Integer> mix) {
+        if (users.isEmpty()) {
+            throw new IllegalArgumentException("Load test needs at least one seeded user");
+        }
+        this.client = client;
+        this.workers = workers;
+        this.report = report;
+        this.users = users;
+        this.schedule = expand(mix);
+    }
+
+    /**
+     * Issues {@code rate} requests per second for the warm-up plus measurement
+     * period; only requests scheduled after the warm-up are recorded.
+     */
+    void run(int rate, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        logger.info("Offering {} req/s for {}s warm-up + {}s measured", rate, warmupSeconds, durationSeconds);
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intendedStart >= measureFrom;
+            Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            workers.execute(() -> execute(operation, intendedStart, measured));
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+            logger.warn("Requests still outstanding after the run; abandoning them");
+            workers.shutdownNow();
+        }
+    }
+
+    private void execute(Operation operation, long intendedStart, boolean measured) {
+        boolean success;
+        try {
+            int status = call(operation);
+            success = status >= 200 && status < 300;
+            if (!success) {
+                logger.debug("{} returned HTTP {}", operation.getLabel(), status);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            logger.debug("{} failed: {}", operation.getLabel(), e.toString());
+            success = false;
+        }
+        if (measured) {
+            report.record(operation, System.nanoTime() - intendedStart, success);
+        }
+    }
+
+    private int call(Operation operation) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ObjectNode user = users.get(random.nextInt(users.size()));
+        switch (operation) {
+            case LIST:
+                return client.list(20);
+            case GET:
+                return client.get(user.get("id").asLong());
+            case CREATE:
+                return client.create(client.newUser("lt" + System.currentTimeMillis() + "_" + createdUsers.incrementAndGet()));
+            case UPDATE:
+                // Unversioned full update: concurrent writers to one user are last-writer-wins
+                ObjectNode changed = user.deepCopy();
+                changed.remove(List.of("version", "createdAt", "updatedAt"));
+                changed.put("firstName", "First" + random.nextInt(100000));
+                return client.update(user.get("id").asLong(), changed);
+            case CHECK_USERNAME:
+                String username = random.nextBoolean()
+                        ? user.get("username").asText()
+                        : "free" + random.nextLong(Long.MAX_VALUE);
+                return client.checkUsername(username);
+            default:
+                throw new IllegalStateException("Unhandled operation " + operation);
+        }
+    }
+
+    private static Operation[] expand(Map<Operation, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Operation[] schedule = new Operation[total];
+        int index = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                schedule[index++] = entry.getKey();
+            }
+        }
+        return schedule;
+    }
+}
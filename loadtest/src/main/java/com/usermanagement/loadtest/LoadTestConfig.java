@@ -0,0 +1,71 @@
+package com.usermanagement.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load-test settings, read from {@code loadtest.*} system properties.
+ */
+final class LoadTestConfig {
+
+    final Path webapp;
+    final int rate;
+    final int durationSeconds;
+    final int warmupSeconds;
+    final int concurrency;
+    final int seedUsers;
+    final Map<Operation, Integer> mix;
+    final Path reportDir;
+    final Path baseline;
+    final boolean writeBaseline;
+    final double tolerancePercent;
+    final double maxErrorPercent;
+    final int stalledFeedReaders;
+    final int feedMaxGapSeconds;
+
+    private LoadTestConfig() {
+        webapp = Paths.get(property("webapp", "../src/main/webapp"));
+        rate = Integer.parseInt(property("rate", "200"));
+        durationSeconds = Integer.parseInt(property("durationSeconds", "30"));
+        warmupSeconds = Integer.parseInt(property("warmupSeconds", "10"));
+        concurrency = Integer.parseInt(property("concurrency", "64"));
+        seedUsers = Integer.parseInt(property("seedUsers", "1000"));
+        mix = parseMix(property("mix", "list=30,get=40,create=10,update=10,checkUsername=10"));
+        reportDir = Paths.get(property("reportDir", "target/loadtest"));
+        String baselinePath = property("baseline", "");
+        baseline = baselinePath.isEmpty() ? null : Paths.get(baselinePath);
+        writeBaseline = Boolean.parseBoolean(property("writeBaseline", "false"));
+        tolerancePercent = Double.parseDouble(property("tolerancePercent", "20"));
+        maxErrorPercent = Double.parseDouble(property("maxErrorPercent", "1"));
+        stalledFeedReaders = Integer.parseInt(property("stalledFeedReaders", "2"));
+        feedMaxGapSeconds = Integer.parseInt(property("feedMaxGapSeconds", "15"));
+    }
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig();
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromName(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Workload mix is empty: " + mix);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,88 @@
+package com.usermanagement.loadtest;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts the application in embedded Tomcat over H2, seeds users, drives the
+ * configured workload and reports per-endpoint latency. Exits with status 1
+ * when p50/p99 regress past the baseline, too many requests fail, or a change
+ * feed reader is held up by the stalled ones ({@link FeedReaders}).
+ *
+ * <p>Usage: {@code mvn -B verify -Ploadtest} from this module, or run this
+ * class directly with the {@code loadtest.*} system properties.
+ */
+public final class LoadTestMain {
+
+    private static final int IMPORT_CHUNK = 500;
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Must be set before the first logger is created
+        System.setProperty("logback.configurationFile", "loadtest-logback.xml");
+        System.exit(run(LoadTestConfig.fromSystemProperties()));
+    }
+
+    static int run(LoadTestConfig config) throws Exception {
+        Logger logger = LoggerFactory.getLogger(LoadTestMain.class);
+
+        ObjectNode summary;
+        LatencyReport report = new LatencyReport(config.mix.keySet());
+        List<String> failures = new ArrayList<>();
+        try (EmbeddedServer server = new EmbeddedServer(config.webapp, config.stalledFeedReaders > 0)) {
+            logger.info("Application started at {}", server.baseUrl());
+
+            UserApiClient client = new UserApiClient(server.baseUrl());
+            ExecutorService workers = Executors.newFixedThreadPool(config.concurrency);
+            LoadGenerator generator = new LoadGenerator(client, workers, report,
+                    seed(client, config.seedUsers), config.mix);
+            if (config.stalledFeedReaders > 0) {
+                try (FeedReaders feedReaders = new FeedReaders(server.baseUrl(), config.stalledFeedReaders)) {
+                    generator.run(config.rate, config.warmupSeconds, config.durationSeconds);
+                    failures.addAll(feedReaders.check(config.feedMaxGapSeconds));
+                }
+            } else {
+                generator.run(config.rate, config.warmupSeconds, config.durationSeconds);
+            }
+            summary = report.summarize(config);
+        }
+
+        report.print(summary, System.out);
+        report.write(summary, config.reportDir);
+
+        if (config.writeBaseline && config.baseline != null) {
+            report.writeBaseline(summary, config.baseline);
+            return 0;
+        }
+
+        failures.addAll(report.checkErrors(summary, config.maxErrorPercent));
+        if (config.baseline != null && Files.exists(config.baseline)) {
+            failures.addAll(report.compareToBaseline(summary, config.baseline, config.tolerancePercent));
+        } else {
+            logger.info("No baseline at {}; skipping regression check", config.baseline);
+        }
+        failures.forEach(failure -> logger.error("FAILED: {}", failure));
+        return failures.isEmpty() ? 0 : 1;
+    }
+
+    private static List<ObjectNode> seed(UserApiClient client, int count) throws Exception {
+        for (int i = 0; i < count; i += IMPORT_CHUNK) {
+            ArrayNode chunk = client.newArray();
+            for (int j = i; j < Math.min(count, i + IMPORT_CHUNK); j++) {
+                chunk.add(client.newUser("seed" + j));
+            }
+            client.importUsers(chunk);
+        }
+        return client.listAll();
+    }
+}
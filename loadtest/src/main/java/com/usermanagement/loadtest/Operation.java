@@ -0,0 +1,31 @@
+package com.usermanagement.loadtest;
+
+/**
+ * Endpoints exercised by the workload, named as in {@code loadtest.mix}.
+ */
+enum Operation {
+    LIST("list"),
+    GET("get"),
+    CREATE("create"),
+    UPDATE("update"),
+    CHECK_USERNAME("checkUsername");
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    String getLabel() {
+        return label;
+    }
+
+    static Operation fromName(String name) {
+        for (Operation operation : values()) {
+            if (operation.label.equalsIgnoreCase(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+}
@@ -0,0 +1,128 @@
+package com.usermanagement.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thin blocking client for the /api/users endpoints. Every call returns the
+ * HTTP status so the load generator can count errors.
+ */
+final class UserApiClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String usersUrl;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    UserApiClient(String baseUrl) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.usersUrl = baseUrl + "/api/users";
+    }
+
+    int list(int limit) throws IOException, InterruptedException {
+        return send(get("?limit=" + limit)).statusCode();
+    }
+
+    int get(long id) throws IOException, InterruptedException {
+        return send(get("/" + id)).statusCode();
+    }
+
+    int checkUsername(String username) throws IOException, InterruptedException {
+        return send(get("/check-username?username="
+                + URLEncoder.encode(username, StandardCharsets.UTF_8))).statusCode();
+    }
+
+    int create(ObjectNode user) throws IOException, InterruptedException {
+        return send(json(URI.create(usersUrl), "POST", user)).statusCode();
+    }
+
+    int update(long id, ObjectNode user) throws IOException, InterruptedException {
+        return send(json(URI.create(usersUrl + "/" + id), "PUT", user)).statusCode();
+    }
+
+    /**
+     * Bulk-creates users through the import endpoint.
+     */
+    void importUsers(ArrayNode users) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(json(URI.create(usersUrl + "/import"), "POST", users));
+        if (response.statusCode() != 200) {
+            throw new IOException("Import failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    /**
+     * Reads every user by walking the keyset cursor.
+     */
+    List<ObjectNode> listAll() throws IOException, InterruptedException {
+        List<ObjectNode> users = new ArrayList<>();
+        String cursor = null;
+        do {
+            String query = "?limit=500" + (cursor != null
+                    ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "");
+            HttpResponse<String> response = send(get(query));
+            if (response.statusCode() != 200) {
+                throw new IOException("Listing failed with HTTP " + response.statusCode());
+            }
+            JsonNode page = mapper.readTree(response.body());
+            for (JsonNode user : page.get("users")) {
+                users.add((ObjectNode) user);
+            }
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        return users;
+    }
+
+    ObjectNode newUser(String username) {
+        ObjectNode user = mapper.createObjectNode();
+        user.put("username", username);
+        user.put("email", username + "@loadtest.example.com");
+        user.put("password", "loadtest123");
+        user.put("firstName", "Load");
+        user.put("lastName", "Test");
+        user.put("status", "ACTIVE");
+        user.put("role", "USER");
+        return user;
+    }
+
+    ArrayNode newArray() {
+        return mapper.createArrayNode();
+    }
+
+    private HttpRequest get(String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(usersUrl + pathAndQuery))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest json(URI uri, String method, JsonNode body) throws IOException {
+        return HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,299 @@
+package com.usermanagement.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.usermanagement.datasource.ReadYourWritesFilter;
+import com.usermanagement.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sheds REST requests before they reach a handler, a thread pool or the
+ * database:
+ * <ul>
+ *   <li>a client (see {@link #clientKey}) over its token bucket gets 429,</li>
+ *   <li>a request over its endpoint rule's token bucket gets 503,</li>
+ *   <li>a request arriving while {@code maxConcurrentPerConnection} requests
+ *       per pooled connection ({@code db.maxTotal}) are in flight gets 503.</li>
+ * </ul>
+ * All carry {@code Retry-After}. Limits are the {@code admission.*} entries
+ * of {@code configLocation}; {@link #reload()} re-reads them when the file
+ * changes, so they can be tuned without a restart. System properties
+ * override the file, as they do for the placeholders in applicationContext.xml.
+ * <p>
+ * Buckets are lock-free ({@link TokenBucket}) and per-client buckets live in
+ * a bounded Caffeine cache, so an idle client's bucket is dropped once it
+ * would have refilled anyway.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionFilter.class);
+
+    static final String REJECTED = "usermanagement_admission_rejected_total";
+
+    static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private Resource configLocation;
+
+    private int poolSize;
+
+    private long maxClients = 100_000;
+
+    private long clientIdleMillis = 600_000;
+
+    private ObjectMapper objectMapper;
+
+    private volatile AdmissionLimits limits;
+
+    private long configLastModified;
+
+    private Cache<String, TokenBucket> clientBuckets;
+
+    private final ConcurrentMap<String, TokenBucket> endpointBuckets = new ConcurrentHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private LongAdder clientRejected = new LongAdder();
+
+    private LongAdder endpointRejected = new LongAdder();
+
+    private LongAdder concurrencyRejected = new LongAdder();
+
+    public void setConfigLocation(Resource configLocation) {
+        this.configLocation = configLocation;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public void setMaxClients(long maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public void setClientIdleMillis(long clientIdleMillis) {
+        this.clientIdleMillis = clientIdleMillis;
+    }
+
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void setRegistry(MetricsRegistry registry) {
+        String help = "REST requests shed before reaching a handler, by limit hit";
+        clientRejected = registry.counter(REJECTED, help, "reason", "client_rate");
+        endpointRejected = registry.counter(REJECTED, help, "reason", "endpoint_rate");
+        concurrencyRejected = registry.counter(REJECTED, help, "reason", "concurrency");
+    }
+
+    public void init() throws IOException {
+        clientBuckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(clientIdleMillis, TimeUnit.MILLISECONDS)
+                .build();
+        configLastModified = lastModified();
+        limits = load();
+        logger.info("Admission limits: {}", limits);
+    }
+
+    /** Re-reads the limits if {@code configLocation} changed; a bad file keeps the old ones. */
+    public void reload() {
+        long modified = lastModified();
+        if (modified == configLastModified) {
+            return;
+        }
+        configLastModified = modified;
+        try {
+            limits = load();
+            logger.info("Reloaded admission limits: {}", limits);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Keeping previous admission limits; cannot load {}: {}", configLocation, e.getMessage());
+        }
+    }
+
+    // 0 for resources that cannot report it (inside a jar), which are only read at startup
+    private long lastModified() {
+        try {
+            return configLocation.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private AdmissionLimits load() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadProperties(configLocation);
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith(AdmissionLimits.PREFIX)) {
+                properties.setProperty(key, System.getProperty(key));
+            }
+        }
+        return AdmissionLimits.parse(properties, poolSize);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        AdmissionLimits current = limits;
+        if (!current.enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        long now = TokenBucket.now();
+
+        if (current.clientRate != null) {
+            TokenBucket bucket = clientBuckets.get(clientKey(request, current), client -> new TokenBucket());
+            long wait = bucket.tryAcquire(now, current.clientRate);
+            if (wait > 0) {
+                clientRejected.increment();
+                reject(request, response, HttpStatus.TOO_MANY_REQUESTS, wait,
+                        "Too many requests from this client, please retry later");
+                return;
+            }
+        }
+
+        AdmissionLimits.EndpointRule rule = current.match(request.getMethod(), path);
+        if (rule != null && rule.rate != null) {
+            TokenBucket bucket = endpointBuckets.computeIfAbsent(rule.name, name -> new TokenBucket());
+            long wait = bucket.tryAcquire(now, rule.rate);
+            if (wait > 0) {
+                endpointRejected.increment();
+                reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, wait,
+                        "This endpoint is busy, please retry later");
+                return;
+            }
+        }
+
+        if (!current.isConcurrencyLimited(path)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!tryEnter(current.maxConcurrent)) {
+            concurrencyRejected.increment();
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, 0,
+                    "The service is busy, please retry later");
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                async = true;
+                request.getAsyncContext().addListener(new ReleaseListener());
+            }
+        } finally {
+            if (!async) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The authenticated principal, else the remote address. Headers are
+     * under the client's control, so {@code X-Client-Id} and then the
+     * nearest untrusted {@code X-Forwarded-For} hop are only believed when
+     * the connection comes from one of {@code admission.trustedProxies}.
+     */
+    static String clientKey(HttpServletRequest request, AdmissionLimits limits) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        String address = request.getRemoteAddr();
+        if (!limits.trustedProxies.contains(address)) {
+            return "addr:" + address;
+        }
+        String clientId = request.getHeader(ReadYourWritesFilter.CLIENT_ID_HEADER);
+        if (clientId != null && !clientId.isEmpty()) {
+            return "id:" + clientId;
+        }
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwardedFor != null) {
+            // Rightmost first: entries left of the last trusted hop were written by the client
+            String[] hops = forwardedFor.split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (!hop.isEmpty() && !limits.trustedProxies.contains(hop)) {
+                    return "addr:" + hop;
+                }
+            }
+        }
+        return "addr:" + address;
+    }
+
+    private boolean tryEnter(int max) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= max) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                        long waitNanos, String message) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        body.put("path", request.getRequestURI());
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    /** Frees the concurrency slot once an asynchronous request completes, however it ends. */
+    private final class ReleaseListener implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            inFlight.decrementAndGet();
+        }
+
+        // Timeouts and errors are dispatched back to the handler and still end in onComplete
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
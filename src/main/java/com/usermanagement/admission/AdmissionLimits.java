@@ -0,0 +1,155 @@
+package com.usermanagement.admission;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the {@code admission.*} properties. A reload builds
+ * a new snapshot and swaps it in; requests read whichever one is current.
+ * <pre>
+ * admission.enabled=true
+ * admission.client.ratePerSecond=100          # per client, 0 = unlimited
+ * admission.client.burst=200
+ * admission.trustedProxies=10.0.0.5,10.0.0.6   # may send X-Client-Id / X-Forwarded-For
+ * admission.maxConcurrentPerConnection=2      # x db.maxTotal, 0 = unlimited
+ * admission.concurrencyExemptPaths=/api/users/changes
+ * admission.endpoint.checkEmail=GET /api/users/check-email 200 400
+ * </pre>
+ * Endpoint rules are {@code METHOD PATTERN RATE BURST}, with {@code *} for
+ * any method and Ant-style patterns; the first matching rule (by name) applies.
+ */
+final class AdmissionLimits {
+
+    static final String PREFIX = "admission.";
+    private static final String ENDPOINT_PREFIX = PREFIX + "endpoint.";
+
+    private static final PathMatcher PATHS = new AntPathMatcher();
+
+    final boolean enabled;
+    final TokenBucket.Rate clientRate;
+    final Set<String> trustedProxies;
+    final int maxConcurrent;
+    final List<String> concurrencyExemptPaths;
+    final List<EndpointRule> endpoints;
+
+    private AdmissionLimits(boolean enabled, TokenBucket.Rate clientRate, Set<String> trustedProxies,
+                            int maxConcurrent, List<String> concurrencyExemptPaths, List<EndpointRule> endpoints) {
+        this.enabled = enabled;
+        this.clientRate = clientRate;
+        this.trustedProxies = trustedProxies;
+        this.maxConcurrent = maxConcurrent;
+        this.concurrencyExemptPaths = concurrencyExemptPaths;
+        this.endpoints = endpoints;
+    }
+
+    static AdmissionLimits parse(Properties properties, int poolSize) {
+        boolean enabled = Boolean.parseBoolean(properties.getProperty(PREFIX + "enabled", "true").trim());
+        TokenBucket.Rate clientRate = rate(
+                Double.parseDouble(properties.getProperty(PREFIX + "client.ratePerSecond", "0").trim()),
+                Integer.parseInt(properties.getProperty(PREFIX + "client.burst", "1").trim()));
+        int perConnection = Integer.parseInt(
+                properties.getProperty(PREFIX + "maxConcurrentPerConnection", "0").trim());
+
+        Set<String> proxies = new LinkedHashSet<>(list(properties.getProperty(PREFIX + "trustedProxies", "")));
+        List<String> exempt = list(properties.getProperty(PREFIX + "concurrencyExemptPaths", ""));
+
+        // Sorted by name so rule order does not depend on Properties hashing
+        TreeMap<String, String> rules = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(ENDPOINT_PREFIX)) {
+                rules.put(key.substring(ENDPOINT_PREFIX.length()), properties.getProperty(key));
+            }
+        }
+        List<EndpointRule> endpoints = new ArrayList<>();
+        rules.forEach((name, rule) -> endpoints.add(EndpointRule.parse(name, rule)));
+
+        return new AdmissionLimits(enabled, clientRate, Collections.unmodifiableSet(proxies),
+                Math.max(perConnection, 0) * poolSize,
+                Collections.unmodifiableList(exempt), Collections.unmodifiableList(endpoints));
+    }
+
+    private static List<String> list(String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                items.add(item.trim());
+            }
+        }
+        return items;
+    }
+
+    private static TokenBucket.Rate rate(double perSecond, int burst) {
+        return perSecond > 0 ? new TokenBucket.Rate(perSecond, burst) : null;
+    }
+
+    EndpointRule match(String method, String path) {
+        for (EndpointRule rule : endpoints) {
+            if (rule.matches(method, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    boolean isConcurrencyLimited(String path) {
+        if (maxConcurrent <= 0) {
+            return false;
+        }
+        for (String exempt : concurrencyExemptPaths) {
+            if (PATHS.match(exempt, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "enabled=" + enabled + ", client=" + (clientRate != null ? clientRate : "unlimited")
+                + ", trustedProxies=" + trustedProxies
+                + ", maxConcurrent=" + (maxConcurrent > 0 ? maxConcurrent : "unlimited")
+                + ", endpoints=" + endpoints;
+    }
+
+    static final class EndpointRule {
+        final String name;
+        final String method;
+        final String pattern;
+        final TokenBucket.Rate rate;
+
+        private EndpointRule(String name, String method, String pattern, TokenBucket.Rate rate) {
+            this.name = name;
+            this.method = method;
+            this.pattern = pattern;
+            this.rate = rate;
+        }
+
+        static EndpointRule parse(String name, String rule) {
+            List<String> parts = Arrays.asList(rule.trim().split("\\s+"));
+            if (parts.size() != 4) {
+                throw new IllegalArgumentException(ENDPOINT_PREFIX + name
+                        + " must be 'METHOD PATTERN RATE BURST': " + rule);
+            }
+            TokenBucket.Rate rate = rate(Double.parseDouble(parts.get(2)), Integer.parseInt(parts.get(3)));
+            return new EndpointRule(name, parts.get(0).toUpperCase(), parts.get(1), rate);
+        }
+
+        boolean matches(String requestMethod, String path) {
+            return ("*".equals(method) || method.equals(requestMethod)) && PATHS.match(pattern, path);
+        }
+
+        @Override
+        public String toString() {
+            return name + "(" + method + " " + pattern + " " + (rate != null ? rate : "unlimited") + ")";
+        }
+    }
+}
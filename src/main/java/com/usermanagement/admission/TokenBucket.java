@@ -0,0 +1,58 @@
+package com.usermanagement.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket kept as a single "theoretical arrival time" (the
+ * generic cell rate algorithm): each admitted request pushes it one interval
+ * into the future, and a request is admitted while it is at most
+ * {@code burst - 1} intervals ahead of now. The rate and burst are passed in
+ * on every call, so reloaded limits apply to existing buckets immediately.
+ */
+final class TokenBucket {
+
+    private static final long ORIGIN = System.nanoTime();
+
+    private final AtomicLong theoreticalArrival = new AtomicLong();
+
+    /** Monotonic nanos, never negative, for use as {@code now}. */
+    static long now() {
+        return System.nanoTime() - ORIGIN;
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise nanos until one is available
+     */
+    long tryAcquire(long now, Rate rate) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, now);
+            long ahead = base - now;
+            if (ahead > rate.toleranceNanos) {
+                return ahead - rate.toleranceNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + rate.intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    static final class Rate {
+        final double perSecond;
+        final int burst;
+        final long intervalNanos;
+        final long toleranceNanos;
+
+        Rate(double perSecond, int burst) {
+            this.perSecond = perSecond;
+            this.burst = Math.max(burst, 1);
+            this.intervalNanos = Math.max(1, (long) (1_000_000_000L / perSecond));
+            this.toleranceNanos = intervalNanos * (this.burst - 1);
+        }
+
+        @Override
+        public String toString() {
+            return perSecond + "/s burst " + burst;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.usermanagement.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+
+import javax.cache.Cache;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JCache region factory that creates bounded Caffeine caches. Each region reads
+ * {@code usermanagement.cache.<region>.max_size} and {@code .ttl_seconds},
+ * falling back to {@code usermanagement.cache.default.*}.
+ */
+public class CaffeineRegionFactory extends JCacheRegionFactory {
+
+    public static final String PREFIX = "usermanagement.cache.";
+
+    private Map<?, ?> configValues;
+
+    private String regionPrefix;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        this.configValues = configValues;
+        this.regionPrefix = settings.getCacheRegionPrefix();
+        super.prepareForUse(settings, configValues);
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setNativeStatisticsEnabled(true);
+
+        // Update timestamps must never be evicted, or stale query results could be served
+        if (!regionName.endsWith(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME)) {
+            long maxSize = setting(regionName, "max_size", 10_000);
+            long ttlSeconds = setting(regionName, "ttl_seconds", 600);
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            if (ttlSeconds > 0) {
+                configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            }
+        }
+        return getCacheManager().createCache(regionName, configuration);
+    }
+
+    private long setting(String regionName, String name, long defaultValue) {
+        // Shards share the cache manager under a region prefix but use the same settings
+        if (regionPrefix != null && regionName.startsWith(regionPrefix + ".")) {
+            regionName = regionName.substring(regionPrefix.length() + 1);
+        }
+        Object value = configValues.get(PREFIX + regionName + "." + name);
+        if (value == null) {
+            value = configValues.get(PREFIX + "default." + name);
+        }
+        return value != null ? Long.parseLong(value.toString().trim()) : defaultValue;
+    }
+}
@@ -3,11 +3,17 @@ package com.usermanagement.config;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.List;
@@ -15,9 +21,23 @@ import java.util.List;
 @Configuration
 public class JacksonConfig implements WebMvcConfigurer {
 
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    // JSON first so it stays the default for Accept: */*
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(userListMessageConverter());
         converters.add(jacksonMessageConverter());
+        converters.add(userListSmileMessageConverter());
+        converters.add(smileMessageConverter());
+        converters.add(userListCborMessageConverter());
+        converters.add(cborMessageConverter());
+    }
+
+    // Registered ahead of jacksonMessageConverter in dispatcher-servlet.xml
+    @Bean
+    public UserListHttpMessageConverter userListMessageConverter() {
+        return new UserListHttpMessageConverter(objectMapper().getFactory());
     }
 
     @Bean
@@ -28,9 +48,42 @@ public class JacksonConfig implements WebMvcConfigurer {
     }
 
     @Bean
+    public UserListHttpMessageConverter userListSmileMessageConverter() {
+        return new UserListHttpMessageConverter(smileObjectMapper().getFactory(), APPLICATION_SMILE);
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(smileObjectMapper());
+    }
+
+    @Bean
+    public UserListHttpMessageConverter userListCborMessageConverter() {
+        return new UserListHttpMessageConverter(cborObjectMapper().getFactory(), MediaType.APPLICATION_CBOR);
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper());
+    }
+
+    @Bean
+    @Primary
     public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
+        return configure(new ObjectMapper());
+    }
+
+    @Bean
+    public ObjectMapper smileObjectMapper() {
+        return configure(new ObjectMapper(new SmileFactory()));
+    }
+
+    @Bean
+    public ObjectMapper cborObjectMapper() {
+        return configure(new ObjectMapper(new CBORFactory()));
+    }
 
+    private static ObjectMapper configure(ObjectMapper mapper) {
         // Register JavaTimeModule for Java 8 date/time support
         mapper.registerModule(new JavaTimeModule());
 
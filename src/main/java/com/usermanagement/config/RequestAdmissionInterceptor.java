@@ -0,0 +1,30 @@
+package com.usermanagement.config;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Turns away asynchronous requests while the {@link RequestExecutor} is full.
+ * Runs before the request goes async, so the rejection is an ordinary
+ * handler exception. A handler whose task runs on another executor names it
+ * in {@link #EXECUTOR_ATTRIBUTE}, and that one is checked instead.
+ */
+public class RequestAdmissionInterceptor implements CallableProcessingInterceptor {
+
+    public static final String EXECUTOR_ATTRIBUTE = RequestAdmissionInterceptor.class.getName() + ".executor";
+
+    private RequestExecutor requestExecutor;
+
+    public void setRequestExecutor(RequestExecutor requestExecutor) {
+        this.requestExecutor = requestExecutor;
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        Object executor = request.getAttribute(EXECUTOR_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        (executor instanceof RequestExecutor ? (RequestExecutor) executor : requestExecutor).checkCapacity();
+    }
+}
@@ -0,0 +1,213 @@
+package com.usermanagement.config;
+
+import com.usermanagement.metrics.LatencyHistogram;
+import com.usermanagement.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs asynchronous REST handlers ({@code Callable} return values) off the
+ * container's request threads. At most {@code maxConcurrency} tasks run at
+ * once and about {@code queueCapacity} more wait. {@link RequestAdmissionInterceptor}
+ * rejects requests beyond that with a {@link TaskRejectedException}, which the
+ * web layer turns into a 503. It checks before Spring MVC starts async
+ * processing: an executor that rejects after that point gets the error
+ * handled twice. The check and the submit are not atomic, so concurrent
+ * requests can overshoot the queue slightly.
+ * <p>
+ * With {@code mode=auto} the tasks run on virtual threads when the JVM has
+ * them (Java 21+), bounded by a semaphore, and on a fixed platform pool
+ * otherwise. The service is compiled for Java 11, so virtual threads are
+ * looked up reflectively.
+ * <p>
+ * Long-running handlers (imports and exports) use a second, smaller instance,
+ * so they cannot occupy the slots of ordinary requests; see
+ * {@link RequestAdmissionInterceptor#EXECUTOR_ATTRIBUTE}.
+ */
+public class RequestExecutor implements AsyncTaskExecutor, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestExecutor.class);
+
+    static final String TASKS = "usermanagement_async_tasks_total";
+    static final String QUEUE_WAIT = "usermanagement_async_queue_wait_seconds";
+
+    private String name = "request";
+
+    private String mode = "auto";
+
+    private int maxConcurrency = 40;
+
+    private int queueCapacity = 200;
+
+    private ExecutorService executor;
+
+    // Bounds running tasks on virtual threads, which have no pool size of their own
+    private Semaphore permits;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private LongAdder accepted = new LongAdder();
+
+    private LongAdder rejected = new LongAdder();
+
+    private LatencyHistogram queueWait = new LatencyHistogram();
+
+    private MetricsRegistry registry;
+
+    /** Labels this executor's metrics and names its threads. */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setRegistry(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void init() {
+        if (registry != null) {
+            String help = "Asynchronous request tasks by executor and outcome; rejected ones got a 503";
+            accepted = registry.counter(TASKS, help, "executor", name, "outcome", "accepted");
+            rejected = registry.counter(TASKS, help, "executor", name, "outcome", "rejected");
+            queueWait = registry.histogram(QUEUE_WAIT, "Time asynchronous request tasks waited to start, by executor",
+                    "executor", name);
+        }
+        if (!"platform".equals(mode)) {
+            executor = newVirtualThreadExecutor();
+            if (executor != null) {
+                permits = new Semaphore(maxConcurrency);
+                logger.info("{} executor: virtual threads, {} running, {} queued",
+                        name, maxConcurrency, queueCapacity);
+                return;
+            }
+            if ("virtual".equals(mode)) {
+                logger.warn("Virtual threads need Java 21+; falling back to a platform thread pool");
+            }
+        }
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency,
+                60, TimeUnit.SECONDS,
+                // Bounded by admission, not here, so an overshoot never fails after async start
+                new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, name + "-exec-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+        logger.info("{} executor: {} platform threads, {} queued", name, maxConcurrency, queueCapacity);
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            // Missing before Java 19, preview-only on 19 and 20
+            return null;
+        }
+    }
+
+    /**
+     * @throws TaskRejectedException when {@code maxConcurrency + queueCapacity}
+     *         tasks are already running or waiting
+     */
+    public void checkCapacity() {
+        if (pending.get() >= maxConcurrency + queueCapacity) {
+            rejected.increment();
+            throw new TaskRejectedException(name + " executor is saturated: " + maxConcurrency
+                    + " running, " + queueCapacity + " queued");
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        pending.incrementAndGet();
+        long submitted = System.nanoTime();
+        try {
+            executor.execute(() -> run(task, submitted));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new TaskRejectedException(name + " executor is shut down", e);
+        }
+        accepted.increment();
+    }
+
+    private void run(Runnable task, long submitted) {
+        try {
+            if (permits != null) {
+                permits.acquire();
+            }
+        } catch (InterruptedException e) {
+            // Cancelled (request timed out) while still queued
+            pending.decrementAndGet();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        queueWait.record(System.nanoTime() - submitted);
+        try {
+            task.run();
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+            pending.decrementAndGet();
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void execute(Runnable task, long startTimeout) {
+        execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        FutureTask<Object> future = new FutureTask<>(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.usermanagement.config;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.dto.UserListResponse;
+import com.usermanagement.export.UserJsonWriter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Streams {@link UserListResponse} bodies through a {@link JsonGenerator}
+ * with {@link UserJsonWriter}, instead of serializing a map of a user list
+ * by reflection. Must be registered ahead of the general Jackson converter
+ * for the same format.
+ */
+public class UserListHttpMessageConverter extends AbstractHttpMessageConverter<UserListResponse> {
+
+    private static final SerializableString USERS = new SerializedString("users");
+    private static final SerializableString COUNT = new SerializedString("count");
+    private static final SerializableString TOTAL_COUNT = new SerializedString("totalCount");
+    private static final SerializableString LIMIT = new SerializedString("limit");
+    private static final SerializableString HAS_MORE = new SerializedString("hasMore");
+    private static final SerializableString NEXT_CURSOR = new SerializedString("nextCursor");
+    private static final SerializableString MISSING_IDS = new SerializedString("missingIds");
+
+    private final JsonFactory jsonFactory;
+
+    public UserListHttpMessageConverter(JsonFactory jsonFactory) {
+        this(jsonFactory, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    /**
+     * For binary Jackson formats: pass the Smile or CBOR factory and its media type.
+     */
+    public UserListHttpMessageConverter(JsonFactory jsonFactory, MediaType... supportedMediaTypes) {
+        super(supportedMediaTypes);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return UserListResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected UserListResponse readInternal(Class<? extends UserListResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("UserListResponse is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(UserListResponse response, HttpOutputMessage outputMessage) throws IOException {
+        // Flushed, not closed: the container owns the response stream
+        JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8);
+        write(generator, response);
+        generator.flush();
+    }
+
+    public static void write(JsonGenerator generator, UserListResponse response) throws IOException {
+        UserJsonWriter userWriter = new UserJsonWriter();
+        generator.writeStartObject();
+        generator.writeFieldName(USERS);
+        generator.writeStartArray();
+        for (UserDTO user : response.getUsers()) {
+            userWriter.write(generator, user);
+        }
+        generator.writeEndArray();
+        generator.writeFieldName(COUNT);
+        generator.writeNumber(response.getCount());
+        if (response.getTotalCount() != null) {
+            generator.writeFieldName(TOTAL_COUNT);
+            generator.writeNumber(response.getTotalCount());
+        }
+        if (response.getLimit() != null) {
+            generator.writeFieldName(LIMIT);
+            generator.writeNumber(response.getLimit());
+        }
+        if (response.getHasMore() != null) {
+            generator.writeFieldName(HAS_MORE);
+            generator.writeBoolean(response.getHasMore());
+        }
+        if (response.getNextCursor() != null) {
+            generator.writeFieldName(NEXT_CURSOR);
+            generator.writeString(response.getNextCursor());
+        }
+        if (response.getMissingIds() != null) {
+            generator.writeFieldName(MISSING_IDS);
+            generator.writeStartArray();
+            for (Long id : response.getMissingIds()) {
+                generator.writeNumber(id);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+}
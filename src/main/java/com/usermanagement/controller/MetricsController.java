@@ -0,0 +1,28 @@
+package com.usermanagement.controller;
+
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.metrics.PrometheusTextWriter;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Prometheus scrape endpoint.
+ */
+@Controller
+public class MetricsController {
+
+    private MetricsRegistry metricsRegistry;
+
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @GetMapping("/metrics")
+    public void scrape(HttpServletResponse response) throws IOException {
+        response.setContentType(PrometheusTextWriter.CONTENT_TYPE);
+        metricsRegistry.scrape(response.getWriter());
+    }
+}
@@ -1,119 +1,414 @@
 package com.usermanagement.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usermanagement.config.RequestAdmissionInterceptor;
+import com.usermanagement.config.RequestExecutor;
+import com.usermanagement.dto.BulkImportResult;
+import com.usermanagement.dto.UserBatch;
 import com.usermanagement.dto.UserDTO;
+import com.usermanagement.dto.UserListResponse;
+import com.usermanagement.dto.UserListVersion;
+import com.usermanagement.dto.UserPage;
+import com.usermanagement.dto.UserSearchResult;
+import com.usermanagement.export.CsvUserExportWriter;
+import com.usermanagement.export.NdjsonUserExportWriter;
+import com.usermanagement.export.UserExportFormat;
+import com.usermanagement.exception.UserVersionConflictException;
+import com.usermanagement.export.UserExportWriter;
+import com.usermanagement.importer.CsvUserReader;
 import com.usermanagement.model.User;
+import com.usermanagement.service.UserChangeFeed;
 import com.usermanagement.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
+/**
+ * Handlers return {@link Callable}s, which Spring MVC runs on the
+ * {@code requestExecutor}, so container threads are freed during database
+ * work; imports and exports run on the separate {@code bulkExecutor}, and
+ * the change feed streams through an {@link SseEmitter} instead.
+ * Search is answered from memory, so it runs on the container thread.
+ */
 @RestController
 @RequestMapping("/api/users")
 public class UserRestController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserRestController.class);
 
+    // Bulk imports and exports run as long as the data takes; a timeout would not stop their work
+    private static final long NO_TIMEOUT = 0;
+
     private UserService userService;
 
+    private ObjectMapper objectMapper;
+
+    private UserChangeFeed changeFeed;
+
+    private RequestExecutor bulkExecutor;
+
     public void setUserService(UserService userService) {
         this.userService = userService;
     }
 
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void setBulkExecutor(RequestExecutor bulkExecutor) {
+        this.bulkExecutor = bulkExecutor;
+    }
+
+    public void setChangeFeed(UserChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllUsers(
-            @RequestParam(required = false) String status) {
-        logger.info("REST: Fetching all users");
+    public Callable<ResponseEntity<UserListResponse>> getAllUsers(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") int limit,
+            @RequestParam(required = false) List<Long> ids,
+            WebRequest request,
+            HttpServletResponse response) {
+        return () -> {
+            if (ids != null) {
+                return usersByIds(ids);
+            }
+            logger.info("REST: Fetching users page");
+            varyByAccept(response);
 
-        List<UserDTO> users;
-        if (status != null && !status.isEmpty()) {
-            users = userService.getUsersByStatus(User.UserStatus.valueOf(status.toUpperCase()));
-        } else {
-            users = userService.getAllUsers();
-        }
+            User.UserStatus userStatus = null;
+            if (status != null && !status.isEmpty()) {
+                userStatus = User.UserStatus.valueOf(status.toUpperCase());
+            }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("users", users);
-        response.put("count", users.size());
-        response.put("totalCount", userService.getUserCount());
+            // The body also carries the unfiltered totalCount, so it is part of the tag
+            long totalCount = userService.getUserCount();
+            String eTag = listETag(userService.getUserListVersion(userStatus), totalCount);
+            if (request.checkNotModified(eTag)) {
+                return null;
+            }
+            UserPage page = userService.getUsersPage(userStatus, cursor, limit);
 
-        return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .body(UserListResponse.of(page, totalCount));
+        };
+    }
+
+    @PostMapping("/batch-get")
+    public Callable<ResponseEntity<UserListResponse>> getUsersByIds(@RequestBody List<Long> ids) {
+        return () -> usersByIds(ids);
+    }
+
+    private ResponseEntity<UserListResponse> usersByIds(List<Long> ids) {
+        logger.info("REST: Fetching {} users by ID", ids.size());
+        UserBatch batch = userService.getUsersByIds(ids);
+
+        return ResponseEntity.ok(UserListResponse.of(batch));
+    }
+
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportUsers(
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        return bulkTask(request, () -> {
+            logger.info("REST: Exporting users as {}", format);
+
+            User.UserStatus userStatus = null;
+            if (status != null && !status.isEmpty()) {
+                userStatus = User.UserStatus.valueOf(status.toUpperCase());
+            }
+            UserExportFormat exportFormat = UserExportFormat.valueOf(format.toUpperCase());
+
+            response.setContentType(exportFormat.getContentType());
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader("Content-Disposition",
+                    "attachment; filename=\"users." + exportFormat.getExtension() + "\"");
+
+            OutputStream out = response.getOutputStream();
+            try (UserExportWriter writer = exportFormat == UserExportFormat.CSV
+                    ? new CsvUserExportWriter(out)
+                    : new NdjsonUserExportWriter(objectMapper, out)) {
+                userService.exportUsers(userStatus, user -> {
+                    try {
+                        writer.write(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return null;
+        });
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        logger.info("REST: Opening change feed after event {}", lastEventId);
+        return changeFeed.subscribe(lastEventId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserDTO> getUserById(@PathVariable Long id) {
-        logger.info("REST: Fetching user with ID: {}", id);
-        UserDTO user = userService.getUserById(id);
-        return ResponseEntity.ok(user);
+    public Callable<ResponseEntity<UserDTO>> getUserById(@PathVariable Long id, WebRequest request,
+                                                         HttpServletResponse response) {
+        return () -> {
+            logger.info("REST: Fetching user with ID: {}", id);
+            varyByAccept(response);
+            // Revalidation reads only the version column; unconditional GETs skip that lookup
+            if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                    && request.checkNotModified(eTag(userService.getUserVersion(id)))) {
+                return null;
+            }
+            UserDTO user = userService.getUserById(id);
+            return ResponseEntity.ok()
+                    .eTag(eTag(user.getVersion()))
+                    .body(user);
+        };
     }
 
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createUser(@Valid @RequestBody UserDTO userDTO) {
-        logger.info("REST: Creating new user: {}", userDTO.getUsername());
-        UserDTO createdUser = userService.createUser(userDTO);
+    public Callable<ResponseEntity<Map<String, Object>>> createUser(@Valid @RequestBody UserDTO userDTO) {
+        return () -> {
+            logger.info("REST: Creating new user: {}", userDTO.getUsername());
+            UserDTO createdUser = userService.createUser(userDTO);
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User created successfully");
-        response.put("user", createdUser);
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "User created successfully");
+            response.put("user", createdUser);
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        };
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public WebAsyncTask<ResponseEntity<BulkImportResult>> importUsers(@RequestBody List<UserDTO> userDTOs,
+                                                                      HttpServletRequest request) {
+        return bulkTask(request, () -> {
+            logger.info("REST: Importing {} users from JSON", userDTOs.size());
+            return ResponseEntity.ok(userService.createUsers(userDTOs));
+        });
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public WebAsyncTask<ResponseEntity<BulkImportResult>> importUsersCsv(HttpServletRequest request) {
+        return bulkTask(request, () -> {
+            CsvUserReader reader = new CsvUserReader(request.getReader());
+            List<UserDTO> userDTOs = reader.readAll();
+            logger.info("REST: Importing {} users from CSV", userDTOs.size());
+            return ResponseEntity.ok(userService.createUsers(userDTOs, reader.getRowErrors()));
+        });
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> updateUser(
+    public Callable<ResponseEntity<Map<String, Object>>> updateUser(
             @PathVariable Long id,
             @Valid @RequestBody UserDTO userDTO) {
-        logger.info("REST: Updating user with ID: {}", id);
-        UserDTO updatedUser = userService.updateUser(id, userDTO);
+        return () -> {
+            logger.info("REST: Updating user with ID: {}", id);
+            UserDTO updatedUser = userService.updateUser(id, userDTO);
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User updated successfully");
-        response.put("user", updatedUser);
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "User updated successfully");
+            response.put("user", updatedUser);
 
-        return ResponseEntity.ok(response);
+            return ResponseEntity.ok(response);
+        };
+    }
+
+    @PatchMapping("/{id}")
+    public Callable<ResponseEntity<Map<String, Object>>> patchUser(
+            @PathVariable Long id,
+            @RequestBody Map<String, Object> changes,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return () -> {
+            logger.info("REST: Patching user with ID: {}", id);
+
+            Map<String, Object> response = new HashMap<>();
+            Long newVersion;
+            try {
+                newVersion = userService.patchUser(id, changes, parseIfMatch(ifMatch));
+            } catch (UserVersionConflictException e) {
+                response.put("message", e.getMessage());
+                response.put("id", id.toString());
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(response);
+            }
+
+            response.put("message", "User updated successfully");
+            response.put("id", id.toString());
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            if (newVersion != null) {
+                response.put("version", newVersion);
+                builder.eTag(eTag(newVersion)).varyBy(HttpHeaders.ACCEPT);
+            }
+            return builder.body(response);
+        };
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, String>> deleteUser(@PathVariable Long id) {
-        logger.info("REST: Deleting user with ID: {}", id);
-        userService.deleteUser(id);
+    public Callable<ResponseEntity<Map<String, String>>> deleteUser(@PathVariable Long id) {
+        return () -> {
+            logger.info("REST: Deleting user with ID: {}", id);
+            userService.deleteUser(id);
 
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "User deleted successfully");
-        response.put("id", id.toString());
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "User deleted successfully");
+            response.put("id", id.toString());
 
-        return ResponseEntity.ok(response);
+            return ResponseEntity.ok(response);
+        };
     }
 
     @GetMapping("/check-username")
-    public ResponseEntity<Map<String, Boolean>> checkUsername(
+    public Callable<ResponseEntity<Map<String, Boolean>>> checkUsername(
             @RequestParam String username) {
-        boolean available = userService.isUsernameAvailable(username);
-        Map<String, Boolean> response = new HashMap<>();
-        response.put("available", available);
-        return ResponseEntity.ok(response);
+        return () -> {
+            boolean available = userService.isUsernameAvailable(username);
+            Map<String, Boolean> response = new HashMap<>();
+            response.put("available", available);
+            return ResponseEntity.ok(response);
+        };
     }
 
     @GetMapping("/check-email")
-    public ResponseEntity<Map<String, Boolean>> checkEmail(
+    public Callable<ResponseEntity<Map<String, Boolean>>> checkEmail(
             @RequestParam String email) {
-        boolean available = userService.isEmailAvailable(email);
-        Map<String, Boolean> response = new HashMap<>();
-        response.put("available", available);
-        return ResponseEntity.ok(response);
+        return () -> {
+            boolean available = userService.isEmailAvailable(email);
+            Map<String, Boolean> response = new HashMap<>();
+            response.put("available", available);
+            return ResponseEntity.ok(response);
+        };
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<UserSearchResult> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int limit) {
+        return ResponseEntity.ok(userService.searchUsers(q, limit));
+    }
+
+    @GetMapping("/search-index")
+    public Callable<ResponseEntity<Map<String, Object>>> getSearchIndexStats() {
+        return () -> {
+            return ResponseEntity.ok(userService.getSearchIndexStats());
+        };
+    }
+
+    @PostMapping("/search-index/rebuild")
+    public Callable<ResponseEntity<Map<String, Object>>> rebuildSearchIndex() {
+        return () -> {
+            logger.info("REST: Rebuilding search index");
+            userService.rebuildSearchIndex();
+            return ResponseEntity.ok(userService.getSearchIndexStats());
+        };
+    }
+
+    @GetMapping("/availability-index")
+    public Callable<ResponseEntity<Map<String, Object>>> getAvailabilityIndexStats() {
+        return () -> {
+            return ResponseEntity.ok(userService.getAvailabilityIndexStats());
+        };
+    }
+
+    @PostMapping("/availability-index/rebuild")
+    public Callable<ResponseEntity<Map<String, Object>>> rebuildAvailabilityIndex() {
+        return () -> {
+            logger.info("REST: Rebuilding availability index");
+            userService.rebuildAvailabilityIndex();
+            return ResponseEntity.ok(userService.getAvailabilityIndexStats());
+        };
+    }
+
+    @GetMapping("/cache-stats")
+    public Callable<ResponseEntity<Map<String, Object>>> getCacheStatistics() {
+        return () -> {
+            return ResponseEntity.ok(userService.getCacheStatistics());
+        };
     }
 
     @GetMapping("/count")
-    public ResponseEntity<Map<String, Long>> getUserCount() {
-        long count = userService.getUserCount();
-        Map<String, Long> response = new HashMap<>();
-        response.put("count", count);
-        return ResponseEntity.ok(response);
+    public Callable<ResponseEntity<Map<String, Long>>> getUserCount(
+            @RequestParam(required = false) String status) {
+        return () -> {
+            long count;
+            if (status != null && !status.isEmpty()) {
+                count = userService.getUserCount(User.UserStatus.valueOf(status.toUpperCase()));
+            } else {
+                count = userService.getUserCount();
+            }
+            Map<String, Long> response = new HashMap<>();
+            response.put("count", count);
+            return ResponseEntity.ok(response);
+        };
+    }
+
+    @GetMapping("/count/breakdown")
+    public Callable<ResponseEntity<Map<String, Object>>> getUserCountBreakdown() {
+        return () -> {
+            return ResponseEntity.ok(userService.getUserCountBreakdown());
+        };
+    }
+
+    // Bulk work holds its thread for as long as the data takes, so it is kept off the requestExecutor
+    private <T> WebAsyncTask<T> bulkTask(HttpServletRequest request, Callable<T> task) {
+        request.setAttribute(RequestAdmissionInterceptor.EXECUTOR_ATTRIBUTE, bulkExecutor);
+        return new WebAsyncTask<>(NO_TIMEOUT, bulkExecutor, task);
+    }
+
+    /**
+     * Tags are versions, shared by the JSON, Smile and CBOR bodies of a
+     * resource, so caches must key on Accept as well. Set before
+     * checkNotModified so 304s carry it too.
+     */
+    private static void varyByAccept(HttpServletResponse response) {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    private static String eTag(Long version) {
+        return version != null ? "\"" + version + "\"" : null;
+    }
+
+    private static String listETag(UserListVersion version, long totalCount) {
+        return "\"" + version.getTag() + "-" + Long.toHexString(totalCount) + "\"";
+    }
+
+    // Returns null for a missing header or "*"; weak or malformed tags can never match
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.startsWith("W/") || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new UserVersionConflictException("Invalid If-Match header: " + ifMatch);
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new UserVersionConflictException("Invalid If-Match header: " + ifMatch);
+        }
     }
 }
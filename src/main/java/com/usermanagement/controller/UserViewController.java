@@ -1,6 +1,8 @@
 package com.usermanagement.controller;
 
 import com.usermanagement.dto.UserDTO;
+import com.usermanagement.dto.UserListVersion;
+import com.usermanagement.dto.UserPage;
 import com.usermanagement.model.User;
 import com.usermanagement.service.UserService;
 import org.slf4j.Logger;
@@ -9,10 +11,10 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
-import java.util.List;
 
 @Controller
 @RequestMapping("/users")
@@ -29,19 +31,36 @@ public class UserViewController {
     @GetMapping
     public String listUsers(
             @RequestParam(required = false) String status,
-            Model model) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") int limit,
+            Model model,
+            WebRequest request) {
         logger.info("VIEW: Displaying users list");
 
-        List<UserDTO> users;
+        User.UserStatus userStatus = null;
         if (status != null && !status.isEmpty()) {
-            users = userService.getUsersByStatus(User.UserStatus.valueOf(status.toUpperCase()));
+            userStatus = User.UserStatus.valueOf(status.toUpperCase());
+        }
+
+        // The model holds only flash attributes here; a page carrying a one-off message is always rendered
+        long totalCount = userService.getUserCount();
+        UserListVersion version = userService.getUserListVersion(userStatus);
+        if (model.asMap().isEmpty() && request.checkNotModified(
+                "W/\"" + version.getTag() + "-" + Long.toHexString(totalCount) + "\"",
+                version.getLastModifiedMillis())) {
+            return null;
+        }
+
+        if (userStatus != null) {
             model.addAttribute("filterStatus", status);
-        } else {
-            users = userService.getAllUsers();
         }
+        UserPage page = userService.getUsersPage(userStatus, cursor, limit);
 
-        model.addAttribute("users", users);
-        model.addAttribute("totalCount", userService.getUserCount());
+        model.addAttribute("users", page.getUsers());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("pageSize", page.getLimit());
+        model.addAttribute("firstPage", cursor == null || cursor.isEmpty());
+        model.addAttribute("totalCount", totalCount);
         model.addAttribute("statuses", User.UserStatus.values());
 
         return "users";
@@ -0,0 +1,1133 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.dto.UserListVersion;
+import com.usermanagement.dto.UserSearchHit;
+import com.usermanagement.model.User;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.hibernate5.HibernateTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.PersistenceException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link UserDAO} spread over several databases, one {@link SessionFactory}
+ * per shard.
+ * <p>
+ * The shard is encoded in the id: shard {@code n} allocates ids from
+ * {@code n << SHARD_ID_BITS} upwards, so an existing single database keeps
+ * its ids as shard 0. New users are placed by a hash of their username.
+ * <p>
+ * Usernames and emails are unique across shards through a {@code user_keys}
+ * directory, itself spread over the shards by a hash of the key. Keys that
+ * live on the user's own shard (always the username of a new user) are
+ * claimed and released in the user write's transaction. Keys on other shards
+ * are claimed before the write, in their own transaction, and released after
+ * it commits; a new user's id is not known yet, so such a claim is made for
+ * a pending owner and pointed at the id once the row commits. Claims left
+ * behind by a crash are taken over once they are older than
+ * {@code claimTimeoutMillis} and no longer match a user.
+ * <p>
+ * Each shard runs at most one transaction per thread: nested calls join it.
+ * Shard 0 shares its SessionFactory with the rest of the application, so its
+ * reads and writes also join the caller's transaction through
+ * {@code transactionManager} and roll back with it. A write therefore never
+ * waits for a second connection of a pool it already holds one of. Other
+ * shards commit on their own, so a write to shard 1 or above stays committed
+ * even if the caller's transaction later rolls back.
+ * <p>
+ * Lists and counts that span shards query shards 1 and above on a small
+ * executor while shard 0 runs on the calling thread, and are merged newest
+ * first. Streams visit the shards one after another, as their consumers
+ * write to a single response in order. Statements run on the executor are
+ * not counted against the caller's query budget.
+ */
+public class ShardedUserDAO implements UserDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedUserDAO.class);
+
+    public static final int SHARD_ID_BITS = 40;
+
+    public static final String KEY_TABLE = "user_keys";
+
+    private static final String USERNAME_KEY = "u:";
+    private static final String EMAIL_KEY = "e:";
+
+    private static final int BACKFILL_CHUNK = 1000;
+
+    private static final Comparator<User> USER_ORDER = Comparator
+            .comparing(User::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(User::getId, Comparator.reverseOrder());
+
+    private static final Comparator<UserDTO> DTO_ORDER = Comparator
+            .comparing(UserDTO::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(UserDTO::getId, Comparator.reverseOrder());
+
+    private List<SessionFactory> sessionFactories;
+
+    private PlatformTransactionManager transactionManager;
+
+    private int streamFetchSize = 100;
+
+    private int batchSize = 20;
+
+    private long claimTimeoutMillis = 60_000;
+
+    private int scatterThreads = 8;
+
+    private ExecutorService scatterExecutor;
+
+    private final List<Shard> shards = new ArrayList<>();
+
+    public void setShards(List<SessionFactory> sessionFactories) {
+        this.sessionFactories = sessionFactories;
+    }
+
+    /**
+     * The application's transaction manager for shard 0; without it shard 0
+     * commits on its own like the others.
+     */
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    public void setStreamFetchSize(int streamFetchSize) {
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setClaimTimeoutMillis(long claimTimeoutMillis) {
+        this.claimTimeoutMillis = claimTimeoutMillis;
+    }
+
+    /** Threads querying shards 1 and above in parallel; each holds one connection of its shard. */
+    public void setScatterThreads(int scatterThreads) {
+        this.scatterThreads = scatterThreads;
+    }
+
+    public void init() {
+        for (int i = 0; i < sessionFactories.size(); i++) {
+            shards.add(new Shard(i, sessionFactories.get(i), i == 0 ? transactionManager : null));
+        }
+        if (shards.size() > 1) {
+            AtomicInteger threads = new AtomicInteger();
+            scatterExecutor = Executors.newFixedThreadPool(scatterThreads, task -> {
+                Thread thread = new Thread(task, "shard-scatter-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        for (Shard shard : shards) {
+            shard.writeKeys(session -> session
+                    .createNativeQuery("CREATE TABLE IF NOT EXISTS " + KEY_TABLE + " (" +
+                            "lookup_key VARCHAR(110) NOT NULL PRIMARY KEY, " +
+                            "user_id BIGINT NOT NULL, " +
+                            "claimed_at TIMESTAMP NOT NULL)")
+                    .executeUpdate());
+
+            UserIdSequenceInitializer sequence = new UserIdSequenceInitializer();
+            sequence.setSessionFactory(shard.sessionFactory);
+            sequence.setMinimumId(Math.max(1, (long) shard.index << SHARD_ID_BITS));
+            sequence.alignWithExistingIds();
+        }
+        backfillKeysIfEmpty();
+        logger.info("Sharded user DAO ready with {} shard(s)", shards.size());
+    }
+
+    public void destroy() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdown();
+        }
+    }
+
+    // ---- writes ----
+
+    @Override
+    public User save(User user) {
+        Shard shard = placementShard(user.getUsername());
+        List<Claim> remote = new ArrayList<>();
+        boolean joined;
+        try {
+            claimRemote(shard, Collections.singletonList(user), remote);
+            joined = shard.write(session -> {
+                shard.dao.save(user);
+                claimLocal(shard, session, user);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            releaseClaims(remote);
+            throw e;
+        }
+        afterWrite(joined, () -> confirmClaims(remote), () -> releaseClaims(remote));
+        return user;
+    }
+
+    @Override
+    public void saveAll(List<User> users) {
+        Map<Shard, List<User>> byShard = new LinkedHashMap<>();
+        for (User user : users) {
+            byShard.computeIfAbsent(placementShard(user.getUsername()), s -> new ArrayList<>()).add(user);
+        }
+
+        List<User> committed = new ArrayList<>();
+        for (Map.Entry<Shard, List<User>> entry : byShard.entrySet()) {
+            Shard shard = entry.getKey();
+            List<Claim> remote = new ArrayList<>();
+            try {
+                claimRemote(shard, entry.getValue(), remote);
+                boolean joined = shard.write(session -> {
+                    shard.dao.saveAll(entry.getValue());
+                    for (User user : entry.getValue()) {
+                        claimLocal(shard, session, user);
+                    }
+                    return null;
+                });
+                afterWrite(joined, () -> confirmClaims(remote), () -> releaseClaims(remote));
+                committed.addAll(entry.getValue());
+            } catch (RuntimeException e) {
+                releaseClaims(remote);
+                // Shards written before the failure are undone so the batch stays all-or-nothing
+                for (User user : committed) {
+                    deleteById(user.getId());
+                }
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public User update(User user) {
+        Shard shard = shardOf(user.getId());
+        KeyChange keys = new KeyChange(shard, user.getId(), user.getUsername(), user.getEmail());
+        boolean joined;
+        try {
+            keys.claimRemote();
+            joined = shard.write(session -> {
+                keys.reclaim(session);
+                shard.dao.update(user);
+                keys.settle(session, true);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            keys.releaseRemote();
+            throw e;
+        }
+        afterWrite(joined, keys::afterCommit, keys::releaseRemote);
+        return user;
+    }
+
+    @Override
+    public int updateInPlace(User user, Long expectedVersion) {
+        Shard shard = shardOf(user.getId());
+        KeyChange keys = new KeyChange(shard, user.getId(), user.getUsername(), user.getEmail());
+        int[] updated = new int[1];
+        boolean joined;
+        try {
+            keys.claimRemote();
+            joined = shard.write(session -> {
+                keys.reclaim(session);
+                updated[0] = shard.dao.updateInPlace(user, expectedVersion);
+                keys.settle(session, updated[0] > 0);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            keys.releaseRemote();
+            throw e;
+        }
+        afterWrite(joined, keys::afterCommit, keys::releaseRemote);
+        return updated[0];
+    }
+
+    @Override
+    public Long updateFields(Long id, Map<String, Object> fields, Long expectedVersion) {
+        Shard shard = shardOf(id);
+        KeyChange keys = new KeyChange(shard, id, (String) fields.get("username"), (String) fields.get("email"));
+        Long[] updated = new Long[1];
+        boolean joined;
+        try {
+            keys.claimRemote();
+            joined = shard.write(session -> {
+                keys.reclaim(session);
+                updated[0] = shard.dao.updateFields(id, fields, expectedVersion);
+                keys.settle(session, updated[0] != null);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            keys.releaseRemote();
+            throw e;
+        }
+        afterWrite(joined, keys::afterCommit, keys::releaseRemote);
+        return updated[0];
+    }
+
+    @Override
+    public void delete(Long id) {
+        deleteById(id);
+    }
+
+    @Override
+    public int deleteById(Long id) {
+        Shard shard = shardOf(id);
+        List<String> remote = new ArrayList<>();
+        int[] deleted = new int[1];
+        boolean joined = shard.write(session -> {
+            Object[] keys = currentKeys(session, id);
+            deleted[0] = shard.dao.deleteById(id);
+            if (deleted[0] > 0 && keys != null) {
+                for (String key : Arrays.asList(usernameKey((String) keys[0]), emailKey((String) keys[1]))) {
+                    if (keyShard(key) == shard) {
+                        releaseIn(session, key, id);
+                    } else {
+                        remote.add(key);
+                    }
+                }
+            }
+            return null;
+        });
+        afterWrite(joined, () -> releaseAll(remote, id), () -> { });
+        return deleted[0];
+    }
+
+    // ---- single-shard reads ----
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return shardOf(id).read(session -> shardOf(id).dao.findById(id));
+    }
+
+    @Override
+    public Optional<UserDTO> findDTOById(Long id) {
+        return shardOf(id).read(session -> shardOf(id).dao.findDTOById(id));
+    }
+
+    @Override
+    public Optional<Long> findVersionById(Long id) {
+        return shardOf(id).read(session -> shardOf(id).dao.findVersionById(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return shardOf(id).read(session -> shardOf(id).dao.existsById(id));
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Long> ids) {
+        Map<Shard, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            byShard.computeIfAbsent(shardOf(id), s -> new ArrayList<>()).add(id);
+        }
+        Map<Long, User> found = new HashMap<>();
+        for (List<User> shardUsers : scatter(byShard.keySet(), shard -> shard.dao.findAllByIds(byShard.get(shard)))) {
+            for (User user : shardUsers) {
+                found.put(user.getId(), user);
+            }
+        }
+
+        List<User> users = new ArrayList<>(found.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            User user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return findByKey(usernameKey(username))
+                .filter(user -> user.getUsername().equalsIgnoreCase(username));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return findByKey(emailKey(email))
+                .filter(user -> user.getEmail().equalsIgnoreCase(email));
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        return findByUsername(username).isPresent();
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return findByEmail(email).isPresent();
+    }
+
+    @Override
+    public List<Object[]> findUsernameEmailPairs(Collection<String> usernames, Collection<String> emails) {
+        List<String> keys = new ArrayList<>();
+        usernames.forEach(username -> keys.add(usernameKey(username)));
+        emails.forEach(email -> keys.add(emailKey(email)));
+
+        Map<Shard, List<String>> byShard = groupByKeyShard(keys);
+        Set<Long> ids = new LinkedHashSet<>();
+        for (List<Long> shardIds : scatter(byShard.keySet(),
+                shard -> lookupAll(shard.sessionFactory.getCurrentSession(), byShard.get(shard)))) {
+            ids.addAll(shardIds);
+        }
+
+        List<Object[]> pairs = new ArrayList<>();
+        for (User user : findAllByIds(ids)) {
+            pairs.add(new Object[] {user.getUsername(), user.getEmail()});
+        }
+        return pairs;
+    }
+
+    // ---- scatter-gather reads ----
+
+    @Override
+    public List<User> findAll() {
+        return merge(scatter(shard -> shard.dao.findAll()), USER_ORDER, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<User> findByStatus(User.UserStatus status) {
+        return merge(scatter(shard -> shard.dao.findByStatus(status)), USER_ORDER, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<UserDTO> findAllDTOs() {
+        return merge(scatter(shard -> shard.dao.findAllDTOs()), DTO_ORDER, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<UserDTO> findDTOsByStatus(User.UserStatus status) {
+        return merge(scatter(shard -> shard.dao.findDTOsByStatus(status)), DTO_ORDER, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<UserDTO> findPage(User.UserStatus status, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        // Each shard returns its own first page after the cursor; the global page is the newest of those
+        return merge(scatter(shard -> shard.dao.findPage(status, afterCreatedAt, afterId, limit)),
+                DTO_ORDER, limit);
+    }
+
+    @Override
+    public UserListVersion findListVersion(User.UserStatus status) {
+        LocalDateTime lastModified = null;
+        long count = 0;
+        long versionSum = 0;
+        long idChecksum = 0;
+        for (UserListVersion version : scatter(shard -> shard.dao.findListVersion(status))) {
+            if (lastModified == null || (version.getLastModified() != null
+                    && version.getLastModified().isAfter(lastModified))) {
+                lastModified = version.getLastModified();
+            }
+            count += version.getCount();
+            versionSum += version.getVersionSum();
+            // Same as one SUM(MOD(id, m)) over all shards, as each term is already reduced
+            idChecksum += version.getIdChecksum();
+        }
+        return new UserListVersion(lastModified, count, versionSum, idChecksum);
+    }
+
+    @Override
+    public void streamByStatus(User.UserStatus status, Consumer<UserDTO> action) {
+        for (Shard shard : shards) {
+            shard.read(session -> {
+                shard.dao.streamByStatus(status, action);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void streamUsernamesAndEmails(BiConsumer<String, String> action) {
+        for (Shard shard : shards) {
+            shard.read(session -> {
+                shard.dao.streamUsernamesAndEmails(action);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void streamSearchHits(Consumer<UserSearchHit> action) {
+        for (Shard shard : shards) {
+            shard.read(session -> {
+                shard.dao.streamSearchHits(action);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public long count() {
+        long total = 0;
+        for (Long count : scatter(shard -> shard.dao.count())) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public List<Object[]> countByStatusAndRole() {
+        Map<User.UserStatus, Map<User.UserRole, Long>> totals = new EnumMap<>(User.UserStatus.class);
+        for (List<Object[]> rows : scatter(shard -> shard.dao.countByStatusAndRole())) {
+            for (Object[] row : rows) {
+                totals.computeIfAbsent((User.UserStatus) row[0], s -> new EnumMap<>(User.UserRole.class))
+                        .merge((User.UserRole) row[1], ((Number) row[2]).longValue(), Long::sum);
+            }
+        }
+        List<Object[]> result = new ArrayList<>();
+        totals.forEach((status, byRole) -> byRole.forEach((role, count) ->
+                result.add(new Object[] {status, role, count})));
+        return result;
+    }
+
+    @Override
+    public void evictFromCache(Collection<Long> ids) {
+        Map<Shard, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long id : ids) {
+            byShard.computeIfAbsent(shardOf(id), s -> new ArrayList<>()).add(id);
+        }
+        byShard.forEach((shard, shardIds) -> shard.dao.evictFromCache(shardIds));
+    }
+
+    @Override
+    public Map<String, Object> getCacheStatistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Shard shard : shards) {
+            result.put("shard-" + shard.index, shard.dao.getCacheStatistics());
+        }
+        return result;
+    }
+
+    /**
+     * Runs {@code onCommit} once a user write is final: right away when the
+     * shard committed it, or when the caller's transaction commits if the
+     * write joined it. {@code onRollback} runs if that transaction rolls back.
+     */
+    private static void afterWrite(boolean joined, Runnable onCommit, Runnable onRollback) {
+        if (!joined) {
+            onCommit.run();
+            return;
+        }
+        // Joined writes are on shard 0, so the key writes made from here are on other shards
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    // ---- routing ----
+
+    private Shard shardOf(Long id) {
+        int index = (int) (id >>> SHARD_ID_BITS);
+        if (index >= shards.size()) {
+            throw new IllegalArgumentException("No shard for user id: " + id);
+        }
+        return shards.get(index);
+    }
+
+    private Shard placementShard(String username) {
+        return keyShard(usernameKey(username));
+    }
+
+    private Shard keyShard(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return shards.get(Math.floorMod(hash ^ (hash >>> 16), shards.size()));
+    }
+
+    private <T> List<T> scatter(Function<Shard, T> work) {
+        return scatter(shards, work);
+    }
+
+    /**
+     * Runs {@code work} in a read transaction on each shard, in parallel.
+     * Shard 0 stays on the calling thread so it joins the caller's
+     * transaction instead of taking a second connection from its pool.
+     */
+    private <T> List<T> scatter(Collection<Shard> targets, Function<Shard, T> work) {
+        Map<Shard, Future<T>> remote = new LinkedHashMap<>();
+        Shard local = null;
+        for (Shard shard : targets) {
+            if (shard.index == 0 || scatterExecutor == null) {
+                local = shard;
+            } else {
+                remote.put(shard, scatterExecutor.submit(() -> shard.read(session -> work.apply(shard))));
+            }
+        }
+
+        Map<Shard, T> results = new HashMap<>();
+        try {
+            if (local != null) {
+                Shard shard = local;
+                results.put(shard, shard.read(session -> work.apply(shard)));
+            }
+            for (Map.Entry<Shard, Future<T>> entry : remote.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } finally {
+            remote.values().forEach(future -> future.cancel(true));
+        }
+
+        List<T> ordered = new ArrayList<>(results.size());
+        for (Shard shard : targets) {
+            ordered.add(results.get(shard));
+        }
+        return ordered;
+    }
+
+    private static <T> List<T> merge(List<List<T>> sorted, Comparator<T> order, int limit) {
+        if (sorted.size() == 1) {
+            List<T> only = sorted.get(0);
+            return only.size() <= limit ? only : new ArrayList<>(only.subList(0, limit));
+        }
+
+        // Heap of {list index, position}, ordered by the element at that position
+        PriorityQueue<int[]> heads = new PriorityQueue<>(
+                (a, b) -> order.compare(sorted.get(a[0]).get(a[1]), sorted.get(b[0]).get(b[1])));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (!sorted.get(i).isEmpty()) {
+                heads.add(new int[] {i, 0});
+            }
+        }
+
+        List<T> merged = new ArrayList<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<T> list = sorted.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (head[1] + 1 < list.size()) {
+                heads.add(new int[] {head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    // ---- key directory ----
+
+    private static String usernameKey(String username) {
+        return USERNAME_KEY + username.toLowerCase(Locale.ROOT);
+    }
+
+    private static String emailKey(String email) {
+        return EMAIL_KEY + email.toLowerCase(Locale.ROOT);
+    }
+
+    private Map<Shard, List<String>> groupByKeyShard(Collection<String> keys) {
+        Map<Shard, List<String>> byShard = new LinkedHashMap<>();
+        for (String key : keys) {
+            byShard.computeIfAbsent(keyShard(key), s -> new ArrayList<>()).add(key);
+        }
+        return byShard;
+    }
+
+    private Optional<User> findByKey(String key) {
+        Long id = keyShard(key).read(session -> lookup(session, key));
+        return id != null ? findById(id) : Optional.empty();
+    }
+
+    /**
+     * Claims the keys of new users that live on other shards than
+     * {@code shard}, one transaction per key shard, for pending owners.
+     * Claims are added to {@code claims} once their transaction succeeds.
+     */
+    private void claimRemote(Shard shard, List<User> users, List<Claim> claims) {
+        Map<Shard, List<Claim>> byShard = new LinkedHashMap<>();
+        for (User user : users) {
+            for (Key key : Key.of(user.getUsername(), user.getEmail())) {
+                if (keyShard(key.key) != shard) {
+                    byShard.computeIfAbsent(keyShard(key.key), s -> new ArrayList<>())
+                            .add(new Claim(key, pendingOwner(), user));
+                }
+            }
+        }
+        for (Map.Entry<Shard, List<Claim>> entry : byShard.entrySet()) {
+            entry.getKey().writeKeys(session -> {
+                for (Claim claim : entry.getValue()) {
+                    claimIn(session, claim.key, claim.owner);
+                }
+                return null;
+            });
+            claims.addAll(entry.getValue());
+        }
+    }
+
+    /** Claims a saved user's keys that live on its own shard, in the write's session. */
+    private void claimLocal(Shard shard, Session session, User user) {
+        for (Key key : Key.of(user.getUsername(), user.getEmail())) {
+            if (keyShard(key.key) == shard) {
+                claimIn(session, key, user.getId());
+            }
+        }
+    }
+
+    /** Points pending claims at the ids their users were saved with. */
+    private void confirmClaims(List<Claim> claims) {
+        for (Claim claim : claims) {
+            try {
+                keyShard(claim.key.key).writeKeys(session -> session
+                        .createNativeQuery("UPDATE " + KEY_TABLE + " SET user_id = :userId, claimed_at = :now" +
+                                " WHERE lookup_key = :key AND user_id = :owner")
+                        .setParameter("key", claim.key.key)
+                        .setParameter("userId", claim.user.getId())
+                        .setParameter("owner", claim.owner)
+                        .setParameter("now", Timestamp.valueOf(LocalDateTime.now()))
+                        .executeUpdate());
+            } catch (PersistenceException e) {
+                // The pending claim still protects the value; it is not found by lookups meanwhile
+                logger.warn("Could not confirm key {}: {}", claim.key.key, e.getMessage());
+            }
+        }
+    }
+
+    private void releaseClaims(List<Claim> claims) {
+        for (Claim claim : claims) {
+            release(claim.key.key, claim.owner);
+        }
+    }
+
+    private static long pendingOwner() {
+        return -ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    /** The stored username and email, ignoring changes to a managed instance not yet flushed. */
+    private static Object[] currentKeys(Session session, Long id) {
+        return session.createQuery("SELECT u.username, u.email FROM User u WHERE u.id = :id", Object[].class)
+                .setParameter("id", id)
+                .setHibernateFlushMode(FlushMode.MANUAL)
+                .uniqueResult();
+    }
+
+    /**
+     * Claims {@code key} for {@code owner} in a session on the key's shard.
+     *
+     * @return whether the key was newly claimed, rather than already held by {@code owner}
+     */
+    private boolean claimIn(Session session, Key key, long owner) {
+        Object[] existing = (Object[]) session
+                .createNativeQuery("SELECT user_id, claimed_at FROM " + KEY_TABLE + " WHERE lookup_key = :key")
+                .setParameter("key", key.key)
+                .uniqueResult();
+        if (existing == null) {
+            try {
+                session.createNativeQuery("INSERT INTO " + KEY_TABLE +
+                                " (lookup_key, user_id, claimed_at) VALUES (:key, :userId, :now)")
+                        .setParameter("key", key.key)
+                        .setParameter("userId", owner)
+                        .setParameter("now", Timestamp.valueOf(LocalDateTime.now()))
+                        .executeUpdate();
+                return true;
+            } catch (PersistenceException e) {
+                // Lost an insert race against a concurrent claim of the same key
+                if (!(e instanceof ConstraintViolationException || e.getCause() instanceof ConstraintViolationException)) {
+                    throw e;
+                }
+                throw key.duplicate();
+            }
+        }
+
+        long current = ((Number) existing[0]).longValue();
+        if (current == owner) {
+            return false;
+        }
+        LocalDateTime claimedAt = ((Timestamp) existing[1]).toLocalDateTime();
+        if (claimedAt.plusNanos(claimTimeoutMillis * 1_000_000).isAfter(LocalDateTime.now())
+                || ownsKey(current, key)) {
+            throw key.duplicate();
+        }
+        logger.info("Taking over stale claim on {} from user {}", key.key, current);
+        int taken = session.createNativeQuery("UPDATE " + KEY_TABLE + " SET user_id = :userId, claimed_at = :now" +
+                        " WHERE lookup_key = :key AND user_id = :owner")
+                .setParameter("key", key.key)
+                .setParameter("userId", owner)
+                .setParameter("owner", current)
+                .setParameter("now", Timestamp.valueOf(LocalDateTime.now()))
+                .executeUpdate();
+        if (taken != 1) {
+            throw key.duplicate();
+        }
+        return true;
+    }
+
+    private static void releaseIn(Session session, String key, long owner) {
+        session.createNativeQuery("DELETE FROM " + KEY_TABLE + " WHERE lookup_key = :key AND user_id = :userId")
+                .setParameter("key", key)
+                .setParameter("userId", owner)
+                .executeUpdate();
+    }
+
+    private boolean ownsKey(long owner, Key key) {
+        if (owner < 0) {
+            // A pending claim whose confirmation was lost still belongs to whoever holds the value
+            return valueInUse(key);
+        }
+        if ((int) (owner >>> SHARD_ID_BITS) >= shards.size()) {
+            return false;
+        }
+        Shard shard = shardOf(owner);
+        Object[] keys = shard.read(session -> currentKeys(session, owner));
+        return keys != null && Key.of((String) keys[0], (String) keys[1]).stream().anyMatch(key::equals);
+    }
+
+    private boolean valueInUse(Key key) {
+        String column = key.key.startsWith(USERNAME_KEY) ? "username" : "email";
+        for (Shard shard : shards) {
+            long users = shard.read(session -> session
+                    .createQuery("SELECT COUNT(u) FROM User u WHERE lower(u." + column + ") = :value", Long.class)
+                    .setParameter("value", key.value.toLowerCase(Locale.ROOT))
+                    .getSingleResult());
+            if (users > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void releaseAll(List<String> keys, Long userId) {
+        for (String key : keys) {
+            release(key, userId);
+        }
+    }
+
+    private void release(String key, Long userId) {
+        if (userId == null) {
+            return;
+        }
+        try {
+            keyShard(key).writeKeys(session -> {
+                releaseIn(session, key, userId);
+                return null;
+            });
+        } catch (PersistenceException e) {
+            // A leftover claim is taken over once it goes stale
+            logger.warn("Could not release key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static Long lookup(Session session, String key) {
+        Object id = session.createNativeQuery("SELECT user_id FROM " + KEY_TABLE +
+                        " WHERE lookup_key = :key AND user_id > 0")
+                .setParameter("key", key)
+                .uniqueResult();
+        return id != null ? ((Number) id).longValue() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> lookupAll(Session session, List<String> keys) {
+        List<Long> ids = new ArrayList<>();
+        for (Object id : (List<Object>) session
+                .createNativeQuery("SELECT user_id FROM " + KEY_TABLE + " WHERE lookup_key IN (:keys) AND user_id > 0")
+                .setParameterList("keys", keys)
+                .getResultList()) {
+            ids.add(((Number) id).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * Fills the key directory from the users already stored, e.g. when an
+     * existing single database becomes shard 0.
+     */
+    private void backfillKeysIfEmpty() {
+        long keys = 0;
+        for (Shard shard : shards) {
+            keys += shard.read(session -> ((Number) session
+                    .createNativeQuery("SELECT COUNT(*) FROM " + KEY_TABLE)
+                    .getSingleResult()).longValue());
+        }
+        if (keys > 0) {
+            return;
+        }
+
+        long filled = 0;
+        for (Shard shard : shards) {
+            long afterId = 0;
+            List<Object[]> rows;
+            do {
+                long after = afterId;
+                rows = shard.read(session -> session
+                        .createQuery("SELECT u.id, u.username, u.email FROM User u " +
+                                "WHERE u.id > :afterId ORDER BY u.id", Object[].class)
+                        .setParameter("afterId", after)
+                        .setMaxResults(BACKFILL_CHUNK)
+                        .getResultList());
+
+                Map<String, Long> owners = new LinkedHashMap<>();
+                for (Object[] row : rows) {
+                    owners.put(usernameKey((String) row[1]), (Long) row[0]);
+                    owners.put(emailKey((String) row[2]), (Long) row[0]);
+                    afterId = (Long) row[0];
+                }
+                for (Map.Entry<Shard, List<String>> entry : groupByKeyShard(owners.keySet()).entrySet()) {
+                    entry.getKey().writeKeys(session -> {
+                        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                        for (String key : entry.getValue()) {
+                            session.createNativeQuery("INSERT INTO " + KEY_TABLE +
+                                            " (lookup_key, user_id, claimed_at) VALUES (:key, :userId, :now)")
+                                    .setParameter("key", key)
+                                    .setParameter("userId", owners.get(key))
+                                    .setParameter("now", now)
+                                    .executeUpdate();
+                        }
+                        return null;
+                    });
+                }
+                filled += rows.size();
+            } while (rows.size() == BACKFILL_CHUNK);
+        }
+        if (filled > 0) {
+            logger.info("Backfilled user key directory for {} existing users", filled);
+        }
+    }
+
+    /** A username or email key, with the value and constraint reported when it is taken. */
+    private static final class Key {
+        final String key;
+        final String value;
+        final String constraint;
+
+        private Key(String key, String value, String constraint) {
+            this.key = key;
+            this.value = value;
+            this.constraint = constraint;
+        }
+
+        static List<Key> of(String username, String email) {
+            List<Key> keys = new ArrayList<>(2);
+            if (username != null) {
+                keys.add(new Key(usernameKey(username), username, "uk_username"));
+            }
+            if (email != null) {
+                keys.add(new Key(emailKey(email), email, "uk_email"));
+            }
+            return keys;
+        }
+
+        ConstraintViolationException duplicate() {
+            return new ConstraintViolationException("Duplicate key " + key,
+                    new SQLException("Duplicate entry '" + value.toLowerCase(Locale.ROOT) +
+                            "' for key '" + constraint + "'", "23000"),
+                    constraint);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && key.equals(((Key) other).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+    }
+
+    /** A key claimed for a new user before its id is known. */
+    private static final class Claim {
+        final Key key;
+        final long owner;
+        final User user;
+
+        Claim(Key key, long owner, User user) {
+            this.key = key;
+            this.owner = owner;
+            this.user = user;
+        }
+    }
+
+    /**
+     * Key claims for an update that may change a user's username or email.
+     * New keys on other shards are claimed before the write and old ones
+     * released after it commits; keys on the user's shard change in the
+     * write's own transaction.
+     */
+    private final class KeyChange {
+        final Shard shard;
+        final Long id;
+        final String username;
+        final String email;
+        final List<String> claimedRemote = new ArrayList<>();
+        Object[] current;
+        boolean updated;
+
+        KeyChange(Shard shard, Long id, String username, String email) {
+            this.shard = shard;
+            this.id = id;
+            this.username = username;
+            this.email = email;
+        }
+
+        void claimRemote() {
+            if (username == null && email == null) {
+                return;
+            }
+            Object[] before = shard.read(session -> currentKeys(session, id));
+            for (Key key : changed(before)) {
+                if (keyShard(key.key) != shard && keyShard(key.key).writeKeys(session -> claimIn(session, key, id))) {
+                    claimedRemote.add(key.key);
+                }
+            }
+        }
+
+        /** Re-reads the keys in the write's transaction and claims what changed since {@link #claimRemote}. */
+        void reclaim(Session session) {
+            if (username == null && email == null) {
+                return;
+            }
+            current = currentKeys(session, id);
+            for (Key key : changed(current)) {
+                if (keyShard(key.key) == shard) {
+                    claimIn(session, key, id);
+                } else if (!claimedRemote.contains(key.key)
+                        && keyShard(key.key).writeKeys(other -> claimIn(other, key, id))) {
+                    claimedRemote.add(key.key);
+                }
+            }
+        }
+
+        /** Releases, in the write's transaction, whichever local key the outcome made obsolete. */
+        void settle(Session session, boolean updated) {
+            this.updated = updated;
+            for (Key key : changed(current)) {
+                Key obsolete = updated ? previous(key) : key;
+                if (keyShard(obsolete.key) == shard) {
+                    releaseIn(session, obsolete.key, id);
+                }
+            }
+        }
+
+        void afterCommit() {
+            if (!updated) {
+                releaseRemote();
+                return;
+            }
+            for (Key key : changed(current)) {
+                Key old = previous(key);
+                if (keyShard(old.key) != shard) {
+                    release(old.key, id);
+                }
+            }
+        }
+
+        void releaseRemote() {
+            releaseAll(claimedRemote, id);
+        }
+
+        private Key previous(Key key) {
+            return key.key.startsWith(USERNAME_KEY)
+                    ? Key.of((String) current[0], null).get(0)
+                    : Key.of(null, (String) current[1]).get(0);
+        }
+
+        private List<Key> changed(Object[] keys) {
+            if (keys == null) {
+                return Collections.emptyList();
+            }
+            List<Key> changed = new ArrayList<>(2);
+            if (username != null && !username.equalsIgnoreCase((String) keys[0])) {
+                changed.addAll(Key.of(username, null));
+            }
+            if (email != null && !email.equalsIgnoreCase((String) keys[1])) {
+                changed.addAll(Key.of(null, email));
+            }
+            return changed;
+        }
+    }
+
+    private final class Shard {
+        final int index;
+        final SessionFactory sessionFactory;
+        final UserDAOImpl dao;
+        final TransactionTemplate writeTx;
+        final TransactionTemplate readTx;
+
+        Shard(int index, SessionFactory sessionFactory, PlatformTransactionManager callerTransactionManager) {
+            this.index = index;
+            this.sessionFactory = sessionFactory;
+
+            this.dao = new UserDAOImpl();
+            dao.setSessionFactory(sessionFactory);
+            dao.setStreamFetchSize(streamFetchSize);
+            dao.setBatchSize(batchSize);
+
+            // Joining rather than suspending keeps this thread to one connection of the shard's pool
+            PlatformTransactionManager transactionManager = callerTransactionManager != null
+                    ? callerTransactionManager : new HibernateTransactionManager(sessionFactory);
+            this.writeTx = new TransactionTemplate(transactionManager);
+            writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+            this.readTx = new TransactionTemplate(transactionManager);
+            readTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+            readTx.setReadOnly(true);
+        }
+
+        /**
+         * Writes user rows, joining the transaction already open on this
+         * shard, if any.
+         *
+         * @return whether the write joined a transaction that is still open
+         */
+        boolean write(Function<Session, ?> work) {
+            Boolean joined = writeTx.execute(status -> {
+                work.apply(sessionFactory.getCurrentSession());
+                return !status.isNewTransaction();
+            });
+            return Boolean.TRUE.equals(joined);
+        }
+
+        /** Writes to the key directory, joining the transaction already open on this shard, if any. */
+        <T> T writeKeys(Function<Session, T> work) {
+            return writeTx.execute(status -> work.apply(sessionFactory.getCurrentSession()));
+        }
+
+        <T> T read(Function<Session, T> work) {
+            return readTx.execute(status -> work.apply(sessionFactory.getCurrentSession()));
+        }
+    }
+}
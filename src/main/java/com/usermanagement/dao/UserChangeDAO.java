@@ -0,0 +1,22 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserChange;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@code user_changes} outbox: one row per user write, tailed by every
+ * node to invalidate its local caches.
+ */
+public interface UserChangeDAO {
+    String getNodeId();
+    void record(Long userId, Long version, UserChange.Operation operation, Collection<String> fields);
+    int recordAll(List<User> users, UserChange.Operation operation);
+    long findMaxId();
+    List<UserChange> findAfter(long afterId, int limit);
+    List<UserChange> findByIds(Collection<Long> ids);
+    int deleteOlderThan(LocalDateTime cutoff);
+}
@@ -0,0 +1,130 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserChange;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records join the caller's transaction, so a change row commits if and only
+ * if the user write does whenever both are in the main database. Under the
+ * {@code sharded} profile that holds for shard 0 only: a write to a higher
+ * shard commits in that shard's own transaction before the change row, so
+ * if the caller's transaction then rolls back, the write stays without a
+ * change row and other nodes serve their cached copy until it expires.
+ * Reads run on the primary (non read-only transactions), since a lagging
+ * replica would hide recent rows from the poller.
+ */
+public class UserChangeDAOImpl implements UserChangeDAO {
+
+    private SessionFactory sessionFactory;
+
+    private String nodeId = UUID.randomUUID().toString();
+
+    public void setSessionFactory(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Identifies this node in {@code origin}; a random id is used when blank.
+     */
+    public void setNodeId(String nodeId) {
+        if (nodeId != null && !nodeId.trim().isEmpty()) {
+            this.nodeId = nodeId.trim();
+        }
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    protected Session getCurrentSession() {
+        return sessionFactory.getCurrentSession();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long userId, Long version, UserChange.Operation operation,
+                       Collection<String> fields) {
+        getCurrentSession().save(new UserChange(userId, version, operation, nodeId,
+                fields != null && !fields.isEmpty() ? String.join(",", fields) : null));
+    }
+
+    // One multi-row INSERT; ids and versions come from the entities, so any shard works
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int recordAll(List<User> users, UserChange.Operation operation) {
+        if (users.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO " + UserChange.TABLE +
+                " (user_id, version, operation, origin, changed_at) VALUES ");
+        for (int i = 0; i < users.size(); i++) {
+            sql.append(i > 0 ? ", " : "")
+                    .append("(:id").append(i).append(", :version").append(i)
+                    .append(", :operation, :origin, :now)");
+        }
+        NativeQuery<?> query = getCurrentSession().createNativeQuery(sql.toString());
+        for (int i = 0; i < users.size(); i++) {
+            query.setParameter("id" + i, users.get(i).getId(), StandardBasicTypes.LONG);
+            query.setParameter("version" + i, users.get(i).getVersion(), StandardBasicTypes.LONG);
+        }
+        return query.setParameter("operation", operation.name())
+                .setParameter("origin", nodeId)
+                .setParameter("now", LocalDateTime.now())
+                // Only this table changes; without it Hibernate would clear every cache region
+                .addSynchronizedQuerySpace(UserChange.TABLE)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public long findMaxId() {
+        Long max = getCurrentSession()
+                .createQuery("SELECT MAX(c.id) FROM UserChange c", Long.class)
+                .getSingleResult();
+        return max != null ? max : 0;
+    }
+
+    @Override
+    @Transactional
+    public List<UserChange> findAfter(long afterId, int limit) {
+        return getCurrentSession()
+                .createQuery("FROM UserChange c WHERE c.id > :afterId ORDER BY c.id", UserChange.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public List<UserChange> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return getCurrentSession()
+                .createQuery("FROM UserChange c WHERE c.id IN (:ids) ORDER BY c.id", UserChange.class)
+                .setParameterList("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int deleteOlderThan(LocalDateTime cutoff) {
+        return getCurrentSession()
+                .createQuery("DELETE FROM UserChange c WHERE c.changedAt < :cutoff")
+                .setParameter("cutoff", cutoff)
+                .executeUpdate();
+    }
+}
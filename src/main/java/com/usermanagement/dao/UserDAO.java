@@ -1,19 +1,46 @@
 package com.usermanagement.dao;
 
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.dto.UserListVersion;
+import com.usermanagement.dto.UserSearchHit;
 import com.usermanagement.model.User;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface UserDAO {
     User save(User user);
+    void saveAll(List<User> users);
     Optional<User> findById(Long id);
+    List<User> findAllByIds(Collection<Long> ids);
     List<User> findAll();
     List<User> findByStatus(User.UserStatus status);
+    Optional<UserDTO> findDTOById(Long id);
+    Optional<Long> findVersionById(Long id);
+    List<UserDTO> findAllDTOs();
+    List<UserDTO> findDTOsByStatus(User.UserStatus status);
+    List<UserDTO> findPage(User.UserStatus status, LocalDateTime afterCreatedAt, Long afterId, int limit);
+    UserListVersion findListVersion(User.UserStatus status);
+    void streamByStatus(User.UserStatus status, Consumer<UserDTO> action);
+    void streamUsernamesAndEmails(BiConsumer<String, String> action);
+    void streamSearchHits(Consumer<UserSearchHit> action);
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     User update(User user);
+    int updateInPlace(User user, Long expectedVersion);
+    Long updateFields(Long id, Map<String, Object> fields, Long expectedVersion);
     void delete(Long id);
+    int deleteById(Long id);
+    boolean existsById(Long id);
     long count();
+    List<Object[]> countByStatusAndRole();
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    List<Object[]> findUsernameEmailPairs(Collection<String> usernames, Collection<String> emails);
+    void evictFromCache(Collection<Long> ids);
+    Map<String, Object> getCacheStatistics();
 }
@@ -1,24 +1,64 @@
 package com.usermanagement.dao;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.dto.UserListVersion;
+import com.usermanagement.dto.UserSearchHit;
 import com.usermanagement.model.User;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.hibernate.query.Query;
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Repository("userDAO")
 public class UserDAOImpl implements UserDAO {
 
+    // Read-only projection: no managed entities, no dirty-check snapshots, no password column
+    private static final String SELECT_DTO = "SELECT new com.usermanagement.dto.UserDTO(" +
+            "u.id, u.username, u.email, u.firstName, u.lastName, u.phoneNumber, " +
+            "u.status, u.role, u.createdAt, u.updatedAt, u.version) FROM User u";
+
     private SessionFactory sessionFactory;
 
+    // MySQL Connector/J only streams rows when the fetch size is Integer.MIN_VALUE
+    private int streamFetchSize = Integer.MIN_VALUE;
+
+    private int batchSize = 20;
+
     public void setSessionFactory(SessionFactory sessionFactory) {
         this.sessionFactory = sessionFactory;
     }
 
+    public void setStreamFetchSize(int streamFetchSize) {
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
     protected Session getCurrentSession() {
         return sessionFactory.getCurrentSession();
     }
@@ -27,9 +67,26 @@ public class UserDAOImpl implements UserDAO {
     @Transactional
     public User save(User user) {
         getCurrentSession().save(user);
+        // Flush so unique-constraint violations surface here rather than at commit
+        getCurrentSession().flush();
         return user;
     }
 
+    @Override
+    @Transactional
+    public void saveAll(List<User> users) {
+        Session session = getCurrentSession();
+        for (int i = 0; i < users.size(); i++) {
+            session.save(users.get(i));
+            if ((i + 1) % batchSize == 0) {
+                session.flush();
+                session.clear();
+            }
+        }
+        session.flush();
+        session.clear();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<User> findById(Long id) {
@@ -37,6 +94,30 @@ public class UserDAOImpl implements UserDAO {
         return Optional.ofNullable(user);
     }
 
+    /**
+     * Loads users in the order of the given ids, skipping ids that do not
+     * exist. Ids already in the session or the second-level cache are
+     * resolved there; the rest are fetched with IN queries of batchSize ids.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllByIds(Collection<Long> ids) {
+        List<User> loaded = getCurrentSession()
+                .byMultipleIds(User.class)
+                .with(CacheMode.NORMAL)
+                .withBatchSize(batchSize)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(true)
+                .multiLoad(new ArrayList<>(new LinkedHashSet<>(ids)));
+        List<User> users = new ArrayList<>(loaded.size());
+        for (User user : loaded) {
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<User> findAll() {
@@ -57,19 +138,153 @@ public class UserDAOImpl implements UserDAO {
 
     @Override
     @Transactional(readOnly = true)
-    public Optional<User> findByUsername(String username) {
-        Query<User> query = getCurrentSession()
-                .createQuery("FROM User u WHERE u.username = :username", User.class);
-        query.setParameter("username", username);
+    public Optional<UserDTO> findDTOById(Long id) {
+        Query<UserDTO> query = getCurrentSession()
+                .createQuery(SELECT_DTO + " WHERE u.id = :id", UserDTO.class);
+        query.setParameter("id", id);
+        query.setCacheable(true);
+        query.setCacheRegion(User.DTO_QUERY_CACHE_REGION);
+        return query.uniqueResultOptional();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionById(Long id) {
+        Query<Long> query = getCurrentSession()
+                .createQuery("SELECT u.version FROM User u WHERE u.id = :id", Long.class);
+        query.setParameter("id", id);
+        query.setCacheable(true);
+        query.setCacheRegion(User.DTO_QUERY_CACHE_REGION);
         return query.uniqueResultOptional();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDTO> findAllDTOs() {
+        Query<UserDTO> query = getCurrentSession()
+                .createQuery(SELECT_DTO + " ORDER BY u.createdAt DESC", UserDTO.class);
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDTO> findDTOsByStatus(User.UserStatus status) {
+        Query<UserDTO> query = getCurrentSession()
+                .createQuery(SELECT_DTO + " WHERE u.status = :status ORDER BY u.createdAt DESC",
+                        UserDTO.class);
+        query.setParameter("status", status);
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserDTO> findPage(User.UserStatus status, LocalDateTime afterCreatedAt,
+                                  Long afterId, int limit) {
+        StringBuilder hql = new StringBuilder(SELECT_DTO).append(" WHERE 1 = 1");
+        if (status != null) {
+            hql.append(" AND u.status = :status");
+        }
+        if (afterCreatedAt != null && afterId != null) {
+            hql.append(" AND (u.createdAt < :afterCreatedAt")
+                    .append(" OR (u.createdAt = :afterCreatedAt AND u.id < :afterId))");
+        }
+        hql.append(" ORDER BY u.createdAt DESC, u.id DESC");
+
+        Query<UserDTO> query = getCurrentSession().createQuery(hql.toString(), UserDTO.class);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (afterCreatedAt != null && afterId != null) {
+            query.setParameter("afterCreatedAt", afterCreatedAt);
+            query.setParameter("afterId", afterId);
+        }
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserListVersion findListVersion(User.UserStatus status) {
+        String hql = "SELECT new com.usermanagement.dto.UserListVersion(MAX(u.updatedAt), COUNT(u), " +
+                "COALESCE(SUM(u.version), 0), COALESCE(SUM(MOD(u.id, " + UserListVersion.ID_MODULUS + ")), 0)) " +
+                "FROM User u";
+        Query<UserListVersion> query = getCurrentSession()
+                .createQuery(status != null ? hql + " WHERE u.status = :status" : hql, UserListVersion.class);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        // Cached until the next write to the users table, so polls between writes skip the database
+        query.setCacheable(true);
+        query.setCacheRegion(User.DTO_QUERY_CACHE_REGION);
+        return query.getSingleResult();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByStatus(User.UserStatus status, Consumer<UserDTO> action) {
+        String hql = status != null
+                ? SELECT_DTO + " WHERE u.status = :status ORDER BY u.createdAt DESC, u.id DESC"
+                : SELECT_DTO + " ORDER BY u.createdAt DESC, u.id DESC";
+
+        Query<UserDTO> query = getCurrentSession().createQuery(hql, UserDTO.class);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        query.setFetchSize(streamFetchSize);
+
+        // Projected rows are not managed, so the persistence context stays empty
+        try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                action.accept((UserDTO) results.get(0));
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUsernamesAndEmails(BiConsumer<String, String> action) {
+        Query<Object[]> query = getCurrentSession()
+                .createQuery("SELECT u.username, u.email FROM User u", Object[].class);
+        query.setFetchSize(streamFetchSize);
+
+        try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                action.accept((String) results.get(0), (String) results.get(1));
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamSearchHits(Consumer<UserSearchHit> action) {
+        Query<UserSearchHit> query = getCurrentSession().createQuery(
+                "SELECT new com.usermanagement.dto.UserSearchHit(u.id, u.username, u.email, u.firstName, u.lastName) " +
+                        "FROM User u", UserSearchHit.class);
+        query.setFetchSize(streamFetchSize);
+
+        try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                action.accept((UserSearchHit) results.get(0));
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUsername(String username) {
+        return getCurrentSession()
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         Query<User> query = getCurrentSession()
                 .createQuery("FROM User u WHERE u.email = :email", User.class);
         query.setParameter("email", email);
+        query.setCacheable(true);
+        query.setCacheRegion(User.EMAIL_QUERY_CACHE_REGION);
         return query.uniqueResultOptional();
     }
 
@@ -77,9 +292,84 @@ public class UserDAOImpl implements UserDAO {
     @Transactional
     public User update(User user) {
         getCurrentSession().update(user);
+        getCurrentSession().flush();
         return user;
     }
 
+    @Override
+    @Transactional
+    public int updateInPlace(User user, Long expectedVersion) {
+        StringBuilder hql = new StringBuilder("UPDATE User u SET ")
+                .append("u.username = :username, u.email = :email, ")
+                .append("u.firstName = :firstName, u.lastName = :lastName, ")
+                .append("u.phoneNumber = :phoneNumber, u.updatedAt = :updatedAt, ")
+                .append("u.version = u.version + 1");
+        if (user.getPassword() != null) {
+            hql.append(", u.password = :password");
+        }
+        if (user.getStatus() != null) {
+            hql.append(", u.status = :status");
+        }
+        if (user.getRole() != null) {
+            hql.append(", u.role = :role");
+        }
+        hql.append(" WHERE u.id = :id");
+        if (expectedVersion != null) {
+            hql.append(" AND u.version = :version");
+        }
+
+        Query<?> query = getCurrentSession().createQuery(hql.toString());
+        query.setParameter("username", user.getUsername());
+        query.setParameter("email", user.getEmail());
+        query.setParameter("firstName", user.getFirstName());
+        query.setParameter("lastName", user.getLastName());
+        query.setParameter("phoneNumber", user.getPhoneNumber());
+        query.setParameter("updatedAt", user.getUpdatedAt());
+        query.setParameter("id", user.getId());
+        if (user.getPassword() != null) {
+            query.setParameter("password", user.getPassword());
+        }
+        if (user.getStatus() != null) {
+            query.setParameter("status", user.getStatus());
+        }
+        if (user.getRole() != null) {
+            query.setParameter("role", user.getRole());
+        }
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * Applies the fields to the managed entity, so @DynamicUpdate writes only
+     * those columns and only this user's cache entry is replaced; a bulk
+     * UPDATE would evict every cached user.
+     *
+     * @return the new version, or null if the user is missing or not at
+     *         {@code expectedVersion}
+     */
+    @Override
+    @Transactional
+    public Long updateFields(Long id, Map<String, Object> fields, Long expectedVersion) {
+        Session session = getCurrentSession();
+        User user = session.get(User.class, id);
+        if (user == null) {
+            return null;
+        }
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            // The cached copy may predate a write made on another node
+            session.refresh(user);
+            if (!expectedVersion.equals(user.getVersion())) {
+                return null;
+            }
+        }
+        PropertyAccessorFactory.forBeanPropertyAccess(user).setPropertyValues(fields);
+        // Versioned UPDATE; a concurrent write surfaces here as an optimistic lock failure
+        session.flush();
+        return user.getVersion();
+    }
+
     @Override
     @Transactional
     public void delete(Long id) {
@@ -89,6 +379,24 @@ public class UserDAOImpl implements UserDAO {
         }
     }
 
+    @Override
+    @Transactional
+    public int deleteById(Long id) {
+        return getCurrentSession()
+                .createQuery("DELETE FROM User u WHERE u.id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsById(Long id) {
+        Query<Long> query = getCurrentSession()
+                .createQuery("SELECT COUNT(u) FROM User u WHERE u.id = :id", Long.class);
+        query.setParameter("id", id);
+        return query.getSingleResult() > 0;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public long count() {
@@ -97,6 +405,15 @@ public class UserDAOImpl implements UserDAO {
         return query.getSingleResult();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Object[]> countByStatusAndRole() {
+        Query<Object[]> query = getCurrentSession()
+                .createQuery("SELECT u.status, u.role, COUNT(u) FROM User u GROUP BY u.status, u.role",
+                        Object[].class);
+        return query.getResultList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
@@ -116,4 +433,87 @@ public class UserDAOImpl implements UserDAO {
         query.setParameter("email", email);
         return query.getSingleResult() > 0;
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Object[]> findUsernameEmailPairs(Collection<String> usernames,
+                                                 Collection<String> emails) {
+        if (usernames.isEmpty() || emails.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Query<Object[]> query = getCurrentSession()
+                .createQuery("SELECT u.username, u.email FROM User u " +
+                        "WHERE u.username IN (:usernames) OR u.email IN (:emails)", Object[].class);
+        query.setParameterList("usernames", usernames);
+        query.setParameterList("emails", emails);
+        return query.getResultList();
+    }
+
+    /**
+     * Drops the given users from this node's second-level cache, along with
+     * the natural-id and query regions that may hold their old values.
+     */
+    @Override
+    public void evictFromCache(Collection<Long> ids) {
+        org.hibernate.Cache cache = sessionFactory.getCache();
+        for (Long id : ids) {
+            cache.evictEntityData(User.class, id);
+        }
+        cache.evictNaturalIdData(User.class);
+        cache.evictQueryRegion(User.EMAIL_QUERY_CACHE_REGION);
+        cache.evictQueryRegion(User.DTO_QUERY_CACHE_REGION);
+        cache.evictDefaultQueryRegion();
+    }
+
+    @Override
+    public Map<String, Object> getCacheStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("hits", statistics.getSecondLevelCacheHitCount());
+        result.put("misses", statistics.getSecondLevelCacheMissCount());
+        result.put("puts", statistics.getSecondLevelCachePutCount());
+        result.put("naturalIdHits", statistics.getNaturalIdCacheHitCount());
+        result.put("naturalIdMisses", statistics.getNaturalIdCacheMissCount());
+        result.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        result.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(regionName);
+            if (regionStatistics == null) {
+                continue;
+            }
+            Map<String, Object> region = new LinkedHashMap<>();
+            region.put("hits", regionStatistics.getHitCount());
+            region.put("misses", regionStatistics.getMissCount());
+            region.put("puts", regionStatistics.getPutCount());
+            Cache<?, ?> cache = caffeineCache(regionName);
+            if (cache != null) {
+                region.put("size", cache.estimatedSize());
+                region.put("evictions", cache.stats().evictionCount());
+            }
+            regions.put(regionName, region);
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    private Cache<?, ?> caffeineCache(String regionName) {
+        RegionFactory regionFactory = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegionFactory();
+        if (!(regionFactory instanceof JCacheRegionFactory)) {
+            return null;
+        }
+        javax.cache.Cache<Object, Object> cache =
+                ((JCacheRegionFactory) regionFactory).getCacheManager().getCache(regionName);
+        if (cache == null) {
+            return null;
+        }
+        try {
+            return cache.unwrap(Cache.class);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
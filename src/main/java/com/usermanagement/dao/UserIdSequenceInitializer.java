@@ -0,0 +1,68 @@
+package com.usermanagement.dao;
+
+import com.usermanagement.model.User;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Moves the pooled id sequence past any ids already present in the users table,
+ * e.g. rows created while the table still used AUTO_INCREMENT, and past
+ * {@code minimumId} so each shard allocates ids from its own range. A
+ * failure stops the application context from starting.
+ */
+public class UserIdSequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdSequenceInitializer.class);
+
+    private SessionFactory sessionFactory;
+
+    private long minimumId = 1;
+
+    public void setSessionFactory(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public void setMinimumId(long minimumId) {
+        this.minimumId = minimumId;
+    }
+
+    public void alignWithExistingIds() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                long nextId = Math.max(minimumId, ((Number) session
+                        .createNativeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM users")
+                        .getSingleResult()).longValue());
+
+                Object current = session
+                        .createNativeQuery("SELECT next_val FROM " + User.ID_SEQUENCE_TABLE +
+                                " WHERE sequence_name = :segment")
+                        .setParameter("segment", User.ID_SEQUENCE_SEGMENT)
+                        .uniqueResult();
+
+                if (current == null) {
+                    session.createNativeQuery("INSERT INTO " + User.ID_SEQUENCE_TABLE +
+                                    " (sequence_name, next_val) VALUES (:segment, :nextId)")
+                            .setParameter("segment", User.ID_SEQUENCE_SEGMENT)
+                            .setParameter("nextId", nextId)
+                            .executeUpdate();
+                } else if (((Number) current).longValue() < nextId) {
+                    session.createNativeQuery("UPDATE " + User.ID_SEQUENCE_TABLE +
+                                    " SET next_val = :nextId WHERE sequence_name = :segment")
+                            .setParameter("segment", User.ID_SEQUENCE_SEGMENT)
+                            .setParameter("nextId", nextId)
+                            .executeUpdate();
+                }
+                tx.commit();
+                logger.info("User id sequence aligned past existing id {}", nextId - 1);
+            } catch (RuntimeException e) {
+                tx.rollback();
+                // Ids handed out from a stale sequence would collide with existing rows
+                throw new IllegalStateException("Could not align user id sequence", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.usermanagement.datasource;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Carries the client bound by {@link ReadYourWritesFilter} over to the thread
+ * that runs an asynchronous handler, so its reads are routed as if they ran
+ * on the request thread.
+ */
+public class ReadYourWritesCallableInterceptor implements CallableProcessingInterceptor {
+
+    private static final String CLIENT_ATTRIBUTE = ReadYourWritesCallableInterceptor.class.getName() + ".client";
+
+    private ReadYourWritesTracker tracker;
+
+    public void setTracker(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        String client = tracker.getCurrentClient();
+        if (client != null) {
+            request.setAttribute(CLIENT_ATTRIBUTE, client, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        String client = (String) request.getAttribute(CLIENT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (client != null) {
+            tracker.bind(client);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        tracker.unbind();
+    }
+}
@@ -0,0 +1,78 @@
+package com.usermanagement.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers which clients committed a write recently, so their reads can be
+ * kept on the primary until replicas have had time to catch up. The client
+ * for the current thread is bound by {@link ReadYourWritesFilter}; threads
+ * without a client (startup, scheduled jobs) are never pinned.
+ */
+public class ReadYourWritesTracker {
+
+    private static final ThreadLocal<String> CURRENT_CLIENT = new ThreadLocal<>();
+
+    private long windowMillis = 2000;
+
+    private long maxClients = 100_000;
+
+    private Cache<String, Boolean> recentWriters;
+
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public void setMaxClients(long maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public void init() {
+        recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Math.max(windowMillis, 0), TimeUnit.MILLISECONDS)
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    public void bind(String client) {
+        CURRENT_CLIENT.set(client);
+    }
+
+    public void unbind() {
+        CURRENT_CLIENT.remove();
+    }
+
+    public String getCurrentClient() {
+        return CURRENT_CLIENT.get();
+    }
+
+    public boolean isPinnedToPrimary() {
+        String client = CURRENT_CLIENT.get();
+        return client != null && windowMillis > 0 && recentWriters.getIfPresent(client) != null;
+    }
+
+    /**
+     * Starts the window for the current client once the surrounding
+     * transaction commits; rolled back transactions do not pin the client.
+     */
+    public void recordWrite() {
+        String client = CURRENT_CLIENT.get();
+        if (client == null || windowMillis <= 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(client, Boolean.TRUE);
+                }
+            });
+        } else {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.usermanagement.datasource;
+
+import com.usermanagement.metrics.LatencyHistogram;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions to healthy replicas in round-robin order and
+ * everything else to the primary. Replica pools are created from
+ * {@code replicaUrls} with the primary pool's driver, credentials and sizing.
+ * <p>
+ * The routing decision needs the transaction's read-only flag, which Spring
+ * sets after the connection is requested, so this data source must be
+ * wrapped in a {@code LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private BasicDataSource primary;
+
+    private String replicaUrls = "";
+
+    private String replicaUsername;
+
+    private String replicaPassword;
+
+    private ReadYourWritesTracker readYourWrites;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private volatile List<Replica> healthyReplicas = new ArrayList<>();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    // Time spent waiting for a pooled connection, per pool
+    private final Map<DataSource, LatencyHistogram> connectionWait = new IdentityHashMap<>();
+
+    public void setPrimary(BasicDataSource primary) {
+        this.primary = primary;
+    }
+
+    public void setReplicaUrls(String replicaUrls) {
+        this.replicaUrls = replicaUrls;
+    }
+
+    public void setReplicaUsername(String replicaUsername) {
+        this.replicaUsername = replicaUsername;
+    }
+
+    public void setReplicaPassword(String replicaPassword) {
+        this.replicaPassword = replicaPassword;
+    }
+
+    public void setReadYourWrites(ReadYourWritesTracker readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (String url : replicaUrls.split(",")) {
+            if (!url.trim().isEmpty()) {
+                Replica replica = new Replica("replica-" + replicas.size(), createPool(url.trim()));
+                replicas.add(replica);
+                targets.put(replica.name, replica.dataSource);
+            }
+        }
+        setTargetDataSources(targets);
+        for (Object target : targets.values()) {
+            connectionWait.put((DataSource) target, new LatencyHistogram());
+        }
+        setDefaultTargetDataSource(primary);
+        super.afterPropertiesSet();
+
+        checkReplicas();
+        logger.info("Routing reads across {} replica(s)", replicas.size());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive() && readYourWrites != null) {
+                readYourWrites.recordWrite();
+            }
+            writes.increment();
+            return PRIMARY;
+        }
+
+        List<Replica> healthy = healthyReplicas;
+        if (healthy.isEmpty() || (readYourWrites != null && readYourWrites.isPinnedToPrimary())) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        int index = Math.floorMod(nextReplica.getAndIncrement(), healthy.size());
+        return healthy.get(index).name;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        long start = System.nanoTime();
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            return fallBackToPrimary(target, e);
+        } finally {
+            recordWait(target, start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource target = determineTargetDataSource();
+        long start = System.nanoTime();
+        try {
+            return target.getConnection(username, password);
+        } catch (SQLException e) {
+            return fallBackToPrimary(target, e);
+        } finally {
+            recordWait(target, start);
+        }
+    }
+
+    /**
+     * Validates every replica and rebuilds the set used for reads.
+     */
+    public void checkReplicas() {
+        List<Replica> healthy = new ArrayList<>();
+        for (Replica replica : replicas) {
+            boolean up = isValid(replica.dataSource);
+            if (up != replica.healthy) {
+                if (up) {
+                    logger.info("Replica {} is healthy", replica.name);
+                } else {
+                    logger.warn("Replica {} failed its health check; reads go elsewhere", replica.name);
+                }
+                replica.healthy = up;
+            }
+            if (up) {
+                healthy.add(replica);
+            }
+        }
+        healthyReplicas = healthy;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> replicaHealth = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            replicaHealth.put(replica.name, replica.healthy ? "UP" : "DOWN");
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("writes", writes.sum());
+        stats.put("primaryReads", primaryReads.sum());
+        stats.put("replicaReads", replicaReads.sum());
+        stats.put("replicas", replicaHealth);
+        return stats;
+    }
+
+    /**
+     * @return the primary and replica pools by name, primary first
+     */
+    public Map<String, BasicDataSource> getPools() {
+        Map<String, BasicDataSource> pools = new LinkedHashMap<>();
+        pools.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            pools.put(replica.name, replica.dataSource);
+        }
+        return pools;
+    }
+
+    public LatencyHistogram getConnectionWait(String pool) {
+        return connectionWait.get(getPools().get(pool));
+    }
+
+    public boolean isHealthy(String replica) {
+        return healthyReplicas.stream().anyMatch(candidate -> candidate.name.equals(replica));
+    }
+
+    public void close() throws SQLException {
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    // A replica that fails between health checks is taken out of rotation right away
+    private Connection fallBackToPrimary(DataSource target, SQLException e) throws SQLException {
+        if (target == primary) {
+            throw e;
+        }
+        List<Replica> healthy = new ArrayList<>(healthyReplicas);
+        for (Replica replica : replicas) {
+            if (replica.dataSource == target && replica.healthy) {
+                replica.healthy = false;
+                healthy.remove(replica);
+                logger.warn("Replica {} is unreachable; reads go elsewhere: {}", replica.name, e.getMessage());
+            }
+        }
+        healthyReplicas = healthy;
+        return primary.getConnection();
+    }
+
+    private void recordWait(DataSource target, long start) {
+        LatencyHistogram histogram = connectionWait.get(target);
+        if (histogram != null) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    private BasicDataSource createPool(String url) {
+        BasicDataSource pool = new BasicDataSource();
+        pool.setDriverClassName(primary.getDriverClassName());
+        pool.setUrl(url);
+        pool.setUsername(replicaUsername != null ? replicaUsername : primary.getUsername());
+        pool.setPassword(replicaPassword != null ? replicaPassword : primary.getPassword());
+        pool.setInitialSize(primary.getInitialSize());
+        pool.setMaxTotal(primary.getMaxTotal());
+        pool.setMaxIdle(primary.getMaxIdle());
+        pool.setMinIdle(primary.getMinIdle());
+        pool.setMaxWaitMillis(primary.getMaxWaitMillis());
+        pool.setTestOnBorrow(primary.getTestOnBorrow());
+        pool.setValidationQuery(primary.getValidationQuery());
+        return pool;
+    }
+
+    private static boolean isValid(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final BasicDataSource dataSource;
+        volatile boolean healthy;
+
+        Replica(String name, BasicDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
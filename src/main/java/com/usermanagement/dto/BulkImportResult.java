@@ -0,0 +1,46 @@
+package com.usermanagement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkImportResult {
+
+    private int total;
+    private int created;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void addError(int row, String username, String message) {
+        errors.add(new RowError(row, username, message));
+    }
+
+    public void addCreated(int count) {
+        created += count;
+    }
+
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public int getCreated() { return created; }
+
+    public int getFailed() { return errors.size(); }
+
+    public List<RowError> getErrors() { return errors; }
+
+    public static class RowError {
+        private final int row;
+        private final String username;
+        private final String message;
+
+        public RowError(int row, String username, String message) {
+            this.row = row;
+            this.username = username;
+            this.message = message;
+        }
+
+        public int getRow() { return row; }
+
+        public String getUsername() { return username; }
+
+        public String getMessage() { return message; }
+    }
+}
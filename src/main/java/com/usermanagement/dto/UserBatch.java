@@ -0,0 +1,18 @@
+package com.usermanagement.dto;
+
+import java.util.List;
+
+public class UserBatch {
+
+    private final List<UserDTO> users;
+    private final List<Long> missingIds;
+
+    public UserBatch(List<UserDTO> users, List<Long> missingIds) {
+        this.users = users;
+        this.missingIds = missingIds;
+    }
+
+    public List<UserDTO> getUsers() { return users; }
+
+    public List<Long> getMissingIds() { return missingIds; }
+}
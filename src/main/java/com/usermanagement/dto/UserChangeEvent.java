@@ -0,0 +1,42 @@
+package com.usermanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.usermanagement.model.UserChange;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Payload of one change-feed event. Only names of changed fields are sent,
+ * never values, so subscribers re-read the user if they need it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserChangeEvent {
+
+    private final Long userId;
+    private final Long version;
+    private final UserChange.Operation operation;
+    private final List<String> fields;
+    private final String changedAt;
+
+    public UserChangeEvent(UserChange change) {
+        this.userId = change.getUserId();
+        this.version = change.getVersion();
+        this.operation = change.getOperation();
+        this.fields = change.getFields() != null
+                ? Collections.unmodifiableList(Arrays.asList(change.getFields().split(",")))
+                : null;
+        this.changedAt = change.getChangedAt() != null ? change.getChangedAt().toString() : null;
+    }
+
+    public Long getUserId() { return userId; }
+
+    public Long getVersion() { return version; }
+
+    public UserChange.Operation getOperation() { return operation; }
+
+    public List<String> getFields() { return fields; }
+
+    public String getChangedAt() { return changedAt; }
+}
@@ -34,6 +34,7 @@ public class UserDTO {
     private LocalDateTime createdAt;
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime updatedAt;
+    private Long version;
 
     public UserDTO() {}
 
@@ -48,6 +49,24 @@ public class UserDTO {
         this.role = user.getRole();
         this.createdAt = user.getCreatedAt();
         this.updatedAt = user.getUpdatedAt();
+        this.version = user.getVersion();
+    }
+
+    // Used by HQL constructor expressions; never touches the password column
+    public UserDTO(Long id, String username, String email, String firstName, String lastName,
+                   String phoneNumber, User.UserStatus status, User.UserRole role,
+                   LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.phoneNumber = phoneNumber;
+        this.status = status;
+        this.role = role;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
     }
 
     public User toEntity() {
@@ -103,4 +122,7 @@ public class UserDTO {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,53 @@
+package com.usermanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+
+/**
+ * Body of the list endpoints ({@code GET /api/users}, {@code POST /api/users/batch-get}).
+ * Written by {@code UserListHttpMessageConverter}; fields left null are omitted.
+ */
+@JsonPropertyOrder({"users", "count", "totalCount", "limit", "hasMore", "nextCursor", "missingIds"})
+public class UserListResponse {
+
+    private final List<UserDTO> users;
+    private Long totalCount;
+    private Integer limit;
+    private Boolean hasMore;
+    private String nextCursor;
+    private List<Long> missingIds;
+
+    public UserListResponse(List<UserDTO> users) {
+        this.users = users;
+    }
+
+    public static UserListResponse of(UserPage page, long totalCount) {
+        UserListResponse response = new UserListResponse(page.getUsers());
+        response.totalCount = totalCount;
+        response.limit = page.getLimit();
+        response.hasMore = page.isHasMore();
+        response.nextCursor = page.getNextCursor();
+        return response;
+    }
+
+    public static UserListResponse of(UserBatch batch) {
+        UserListResponse response = new UserListResponse(batch.getUsers());
+        response.missingIds = batch.getMissingIds();
+        return response;
+    }
+
+    public List<UserDTO> getUsers() { return users; }
+
+    public int getCount() { return users.size(); }
+
+    public Long getTotalCount() { return totalCount; }
+
+    public Integer getLimit() { return limit; }
+
+    public Boolean getHasMore() { return hasMore; }
+
+    public String getNextCursor() { return nextCursor; }
+
+    public List<Long> getMissingIds() { return missingIds; }
+}
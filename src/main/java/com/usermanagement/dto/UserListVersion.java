@@ -0,0 +1,55 @@
+package com.usermanagement.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Fingerprint of a filtered user list: the newest {@code updatedAt}, the row
+ * count, the sum of versions and an id checksum. {@code updated_at} only has
+ * second precision in MySQL, so the last two catch what it misses: every
+ * update bumps a version, and replacing one row with another changes the
+ * checksum. The checksum sums ids modulo {@link #ID_MODULUS}; a plain sum
+ * would overflow a long with sharded ids, which start at {@code shard << 40}.
+ */
+public class UserListVersion {
+
+    /** Largest prime below 2^31, so each term fits an int and the sum a long. */
+    public static final long ID_MODULUS = 2_147_483_647L;
+
+    private final LocalDateTime lastModified;
+    private final long count;
+    private final long versionSum;
+    private final long idChecksum;
+
+    public UserListVersion(LocalDateTime lastModified, long count, long versionSum, long idChecksum) {
+        this.lastModified = lastModified;
+        this.count = count;
+        this.versionSum = versionSum;
+        this.idChecksum = idChecksum;
+    }
+
+    public LocalDateTime getLastModified() { return lastModified; }
+
+    public long getCount() { return count; }
+
+    public long getVersionSum() { return versionSum; }
+
+    public long getIdChecksum() { return idChecksum; }
+
+    /** Epoch millis in the server zone (how updatedAt is stored), or -1 for an empty list. */
+    public long getLastModifiedMillis() {
+        return lastModified != null
+                ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+    }
+
+    /** Opaque, unquoted tag value; callers add quotes and anything else the body depends on. */
+    public String getTag() {
+        long micros = lastModified != null
+                ? lastModified.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + lastModified.getNano() / 1_000
+                : 0;
+        return Long.toHexString(micros) + "-" + Long.toHexString(count)
+                + "-" + Long.toHexString(versionSum) + "-" + Long.toHexString(idChecksum);
+    }
+}
@@ -0,0 +1,24 @@
+package com.usermanagement.dto;
+
+import java.util.List;
+
+public class UserPage {
+
+    private final List<UserDTO> users;
+    private final String nextCursor;
+    private final int limit;
+
+    public UserPage(List<UserDTO> users, String nextCursor, int limit) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+    }
+
+    public List<UserDTO> getUsers() { return users; }
+
+    public String getNextCursor() { return nextCursor; }
+
+    public int getLimit() { return limit; }
+
+    public boolean isHasMore() { return nextCursor != null; }
+}
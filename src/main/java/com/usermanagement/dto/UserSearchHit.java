@@ -0,0 +1,38 @@
+package com.usermanagement.dto;
+
+import com.usermanagement.model.User;
+
+/**
+ * The searchable fields of one user, as held by the search index and
+ * returned from {@code GET /api/users/search}.
+ */
+public class UserSearchHit {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+
+    public UserSearchHit(Long id, String username, String email, String firstName, String lastName) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    public UserSearchHit(User user) {
+        this(user.getId(), user.getUsername(), user.getEmail(), user.getFirstName(), user.getLastName());
+    }
+
+    public Long getId() { return id; }
+
+    public String getUsername() { return username; }
+
+    public String getEmail() { return email; }
+
+    public String getFirstName() { return firstName; }
+
+    public String getLastName() { return lastName; }
+}
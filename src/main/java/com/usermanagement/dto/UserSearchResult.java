@@ -0,0 +1,23 @@
+package com.usermanagement.dto;
+
+import java.util.List;
+
+public class UserSearchResult {
+
+    private final String query;
+    private final int total;
+    private final List<UserSearchHit> users;
+
+    public UserSearchResult(String query, int total, List<UserSearchHit> users) {
+        this.query = query;
+        this.total = total;
+        this.users = users;
+    }
+
+    public String getQuery() { return query; }
+
+    /** Matches before the limit was applied. */
+    public int getTotal() { return total; }
+
+    public List<UserSearchHit> getUsers() { return users; }
+}
@@ -0,0 +1,7 @@
+package com.usermanagement.exception;
+
+public class CoalescedReadTimeoutException extends RuntimeException {
+    public CoalescedReadTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -2,12 +2,15 @@ package com.usermanagement.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
@@ -41,6 +44,99 @@ public class GlobalExceptionHandler {
         }
     }
 
+    @ExceptionHandler(UserVersionConflictException.class)
+    public Object handleUserVersionConflictException(UserVersionConflictException ex,
+                                                     HttpServletRequest request) {
+        logger.warn("Version conflict: {}", ex.getMessage());
+
+        if (isRestRequest(request)) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("timestamp", LocalDateTime.now());
+            body.put("status", HttpStatus.CONFLICT.value());
+            body.put("error", "Conflict");
+            body.put("message", ex.getMessage());
+            body.put("path", request.getRequestURI());
+
+            return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+        } else {
+            ModelAndView mav = new ModelAndView("error");
+            mav.addObject("errorMessage", ex.getMessage());
+            mav.addObject("errorCode", HttpStatus.CONFLICT.value());
+            return mav;
+        }
+    }
+
+    @ExceptionHandler(CoalescedReadTimeoutException.class)
+    public Object handleCoalescedReadTimeoutException(CoalescedReadTimeoutException ex,
+                                                      HttpServletRequest request) {
+        logger.warn("Coalesced read timed out: {}", ex.getMessage());
+
+        if (isRestRequest(request)) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("timestamp", LocalDateTime.now());
+            body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+            body.put("error", "Service Unavailable");
+            body.put("message", "The request timed out waiting for the database, please retry");
+            body.put("path", request.getRequestURI());
+
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(body);
+        } else {
+            ModelAndView mav = new ModelAndView("error");
+            mav.addObject("errorMessage", "The request timed out, please retry");
+            mav.addObject("errorCode", HttpStatus.SERVICE_UNAVAILABLE.value());
+            mav.setStatus(HttpStatus.SERVICE_UNAVAILABLE);
+            return mav;
+        }
+    }
+
+    @ExceptionHandler({AsyncRequestTimeoutException.class, TaskRejectedException.class})
+    public Object handleRequestExecutorUnavailable(Exception ex, HttpServletRequest request) {
+        logger.warn("Request executor unavailable: {}", ex.getClass().getSimpleName());
+
+        if (isRestRequest(request)) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("timestamp", LocalDateTime.now());
+            body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+            body.put("error", "Service Unavailable");
+            body.put("message", "The server is busy, please retry");
+            body.put("path", request.getRequestURI());
+
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(body);
+        } else {
+            ModelAndView mav = new ModelAndView("error");
+            mav.addObject("errorMessage", "The server is busy, please retry");
+            mav.addObject("errorCode", HttpStatus.SERVICE_UNAVAILABLE.value());
+            mav.setStatus(HttpStatus.SERVICE_UNAVAILABLE);
+            return mav;
+        }
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public Object handleIllegalArgumentException(IllegalArgumentException ex,
+                                                 HttpServletRequest request) {
+        logger.warn("Bad request: {}", ex.getMessage());
+
+        if (isRestRequest(request)) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("timestamp", LocalDateTime.now());
+            body.put("status", HttpStatus.BAD_REQUEST.value());
+            body.put("error", "Bad Request");
+            body.put("message", ex.getMessage());
+            body.put("path", request.getRequestURI());
+
+            return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+        } else {
+            ModelAndView mav = new ModelAndView("error");
+            mav.addObject("errorMessage", ex.getMessage());
+            mav.addObject("errorCode", HttpStatus.BAD_REQUEST.value());
+            return mav;
+        }
+    }
+
     @ExceptionHandler(Exception.class)
     public Object handleGlobalException(Exception ex, HttpServletRequest request) {
         logger.error("Internal server error: ", ex);
@@ -64,7 +160,8 @@ public class GlobalExceptionHandler {
 
     private boolean isRestRequest(HttpServletRequest request) {
         String accept = request.getHeader("Accept");
-        String requestURI = request.getRequestURI();
+        // Relative to the context path, so /user-management/api/... counts too
+        String requestURI = request.getRequestURI().substring(request.getContextPath().length());
         return (accept != null && accept.contains("application/json")) ||
                 requestURI.startsWith("/api/");
     }
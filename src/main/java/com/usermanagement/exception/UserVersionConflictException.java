@@ -0,0 +1,7 @@
+package com.usermanagement.exception;
+
+public class UserVersionConflictException extends RuntimeException {
+    public UserVersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,71 @@
+package com.usermanagement.export;
+
+import com.usermanagement.dto.UserDTO;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+public class CsvUserExportWriter implements UserExportWriter {
+
+    private static final String[] HEADER = {
+            "id", "username", "email", "firstName", "lastName",
+            "phoneNumber", "status", "role", "createdAt", "updatedAt"
+    };
+
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final Writer writer;
+
+    public CsvUserExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeRow((Object[]) HEADER);
+    }
+
+    @Override
+    public void write(UserDTO user) throws IOException {
+        writeRow(user.getId(), user.getUsername(), user.getEmail(),
+                user.getFirstName(), user.getLastName(), user.getPhoneNumber(),
+                user.getStatus(), user.getRole(),
+                format(user.getCreatedAt()), format(user.getUpdatedAt()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime != null ? DATE_FORMAT.format(dateTime) : null;
+    }
+
+    private void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeField(values[i].toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,30 @@
+package com.usermanagement.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usermanagement.dto.UserDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class NdjsonUserExportWriter implements UserExportWriter {
+
+    private final JsonGenerator generator;
+    private final UserJsonWriter writer = new UserJsonWriter();
+
+    public NdjsonUserExportWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void write(UserDTO user) throws IOException {
+        writer.write(generator, user);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,10 @@
+package com.usermanagement.export;
+
+import com.usermanagement.dto.UserDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface UserExportWriter extends Closeable {
+    void write(UserDTO user) throws IOException;
+}
@@ -0,0 +1,108 @@
+package com.usermanagement.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.usermanagement.dto.UserDTO;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a {@link UserDTO} straight to a {@link JsonGenerator}, producing the
+ * same JSON as the application ObjectMapper (declaration order, nulls
+ * omitted, {@code yyyy-MM-dd'T'HH:mm:ss} dates) without reflection or
+ * per-call annotation lookups. Field names are pre-encoded and dates are
+ * formatted into a reused buffer, so an instance is not thread-safe; use one
+ * per response.
+ */
+public class UserJsonWriter {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString PASSWORD = new SerializedString("password");
+    private static final SerializableString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializableString LAST_NAME = new SerializedString("lastName");
+    private static final SerializableString PHONE_NUMBER = new SerializedString("phoneNumber");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString ROLE = new SerializedString("role");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    // Matches @JsonFormat on UserDTO; only used outside the fast path
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final char[] dateBuffer = new char[19];
+
+    public void write(JsonGenerator generator, UserDTO user) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, ID, user.getId());
+        writeString(generator, USERNAME, user.getUsername());
+        writeString(generator, EMAIL, user.getEmail());
+        writeString(generator, PASSWORD, user.getPassword());
+        writeString(generator, FIRST_NAME, user.getFirstName());
+        writeString(generator, LAST_NAME, user.getLastName());
+        writeString(generator, PHONE_NUMBER, user.getPhoneNumber());
+        if (user.getStatus() != null) {
+            writeString(generator, STATUS, user.getStatus().name());
+        }
+        if (user.getRole() != null) {
+            writeString(generator, ROLE, user.getRole().name());
+        }
+        writeDateTime(generator, CREATED_AT, user.getCreatedAt());
+        writeDateTime(generator, UPDATED_AT, user.getUpdatedAt());
+        writeNumber(generator, VERSION, user.getVersion());
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializableString name, String value)
+            throws IOException {
+        if (value != null) {
+            generator.writeFieldName(name);
+            generator.writeString(value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator generator, SerializableString name, Long value)
+            throws IOException {
+        if (value != null) {
+            generator.writeFieldName(name);
+            generator.writeNumber(value);
+        }
+    }
+
+    private void writeDateTime(JsonGenerator generator, SerializableString name, LocalDateTime value)
+            throws IOException {
+        if (value == null) {
+            return;
+        }
+        generator.writeFieldName(name);
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            generator.writeString(DATE_TIME.format(value));
+            return;
+        }
+        digits(year, 0, 4);
+        dateBuffer[4] = '-';
+        digits(value.getMonthValue(), 5, 2);
+        dateBuffer[7] = '-';
+        digits(value.getDayOfMonth(), 8, 2);
+        dateBuffer[10] = 'T';
+        digits(value.getHour(), 11, 2);
+        dateBuffer[13] = ':';
+        digits(value.getMinute(), 14, 2);
+        dateBuffer[16] = ':';
+        digits(value.getSecond(), 17, 2);
+        generator.writeString(dateBuffer, 0, dateBuffer.length);
+    }
+
+    private void digits(int value, int offset, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            dateBuffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
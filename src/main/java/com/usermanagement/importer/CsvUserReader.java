@@ -0,0 +1,143 @@
+package com.usermanagement.importer;
+
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.model.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads users from RFC 4180 CSV. The first record is a header naming the
+ * UserDTO properties; unknown columns are ignored. A record with a cell that
+ * cannot be converted is still returned, so row numbers stay aligned, and
+ * the problem is listed in {@link #getRowErrors()}.
+ */
+public class CsvUserReader {
+
+    private final BufferedReader reader;
+
+    private final Map<Integer, String> rowErrors = new LinkedHashMap<>();
+
+    public CsvUserReader(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+
+    /**
+     * Problems found by {@link #readAll()}, keyed by 1-based position in the
+     * returned list.
+     */
+    public Map<Integer, String> getRowErrors() {
+        return rowErrors;
+    }
+
+    public List<UserDTO> readAll() throws IOException {
+        List<UserDTO> users = new ArrayList<>();
+        List<String> header = readRecord();
+        if (header == null) {
+            return users;
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+
+        List<String> record;
+        while ((record = readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            users.add(toUser(columns, record, users.size() + 1));
+        }
+        return users;
+    }
+
+    private UserDTO toUser(Map<String, Integer> columns, List<String> record, int row) {
+        UserDTO user = new UserDTO();
+        user.setUsername(value(columns, record, "username"));
+        user.setEmail(value(columns, record, "email"));
+        user.setPassword(value(columns, record, "password"));
+        user.setFirstName(value(columns, record, "firstName"));
+        user.setLastName(value(columns, record, "lastName"));
+        user.setPhoneNumber(value(columns, record, "phoneNumber"));
+
+        List<String> errors = new ArrayList<>();
+        String status = value(columns, record, "status");
+        if (status != null) {
+            user.setStatus(parse(User.UserStatus.class, "status", status, errors));
+        }
+        String role = value(columns, record, "role");
+        if (role != null) {
+            user.setRole(parse(User.UserRole.class, "role", role, errors));
+        }
+        if (!errors.isEmpty()) {
+            rowErrors.put(row, String.join("; ", errors));
+        }
+        return user;
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String name, String value, List<String> errors) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.add(name + ": unknown value '" + value + "'");
+            return null;
+        }
+    }
+
+    private static String value(Map<String, Integer> columns, List<String> record, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
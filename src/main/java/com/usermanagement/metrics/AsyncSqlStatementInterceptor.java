@@ -0,0 +1,44 @@
+package com.usermanagement.metrics;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import javax.servlet.ServletRequest;
+import java.util.concurrent.Callable;
+
+/**
+ * Counts the SQL statements an asynchronous handler runs on its executor
+ * thread and adds them to the request, where {@link HttpMetricsFilter} picks
+ * them up for the route's query budget.
+ */
+public class AsyncSqlStatementInterceptor implements CallableProcessingInterceptor {
+
+    static final String STATEMENTS_ATTRIBUTE = AsyncSqlStatementInterceptor.class.getName() + ".statements";
+
+    private static final ThreadLocal<Long> START = new ThreadLocal<>();
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        START.set(SqlStatementCounter.current());
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        Long start = START.get();
+        if (start == null) {
+            return;
+        }
+        START.remove();
+        long statements = SqlStatementCounter.current() - start;
+        Long previous = (Long) request.getAttribute(STATEMENTS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        request.setAttribute(STATEMENTS_ATTRIBUTE, previous != null ? previous + statements : statements,
+                RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /** Statements run asynchronously for this request so far. */
+    static long statementsOf(ServletRequest request) {
+        Object statements = request.getAttribute(STATEMENTS_ATTRIBUTE);
+        return statements instanceof Long ? (Long) statements : 0;
+    }
+}
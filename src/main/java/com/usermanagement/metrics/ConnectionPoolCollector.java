@@ -0,0 +1,63 @@
+package com.usermanagement.metrics;
+
+import com.usermanagement.datasource.ReplicaRoutingDataSource;
+import org.apache.commons.dbcp2.BasicDataSource;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * DBCP2 pool gauges (active, idle, max), connection wait time and read/write
+ * routing counts for the primary and every replica pool.
+ */
+public class ConnectionPoolCollector implements MetricsCollector {
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    public void setRoutingDataSource(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public void collect(PrometheusTextWriter out) throws IOException {
+        Map<String, BasicDataSource> pools = routingDataSource.getPools();
+
+        out.header("db_pool_connections", "gauge", "Pooled connections by state");
+        for (Map.Entry<String, BasicDataSource> pool : pools.entrySet()) {
+            out.sample("db_pool_connections", pool.getValue().getNumActive(),
+                    "pool", pool.getKey(), "state", "active");
+            out.sample("db_pool_connections", pool.getValue().getNumIdle(),
+                    "pool", pool.getKey(), "state", "idle");
+        }
+
+        out.header("db_pool_max_connections", "gauge", "Configured maxTotal per pool");
+        for (Map.Entry<String, BasicDataSource> pool : pools.entrySet()) {
+            out.sample("db_pool_max_connections", pool.getValue().getMaxTotal(), "pool", pool.getKey());
+        }
+
+        out.header("db_pool_connection_wait_seconds", "histogram",
+                "Time to obtain a connection from the pool");
+        for (String pool : pools.keySet()) {
+            LatencyHistogram wait = routingDataSource.getConnectionWait(pool);
+            if (wait != null) {
+                wait.write(out, "db_pool_connection_wait_seconds", "pool", pool);
+            }
+        }
+
+        out.header("db_replica_up", "gauge", "1 if the replica passed its last health check");
+        for (String pool : pools.keySet()) {
+            if (!pool.equals("primary")) {
+                out.sample("db_replica_up", routingDataSource.isHealthy(pool) ? 1 : 0, "pool", pool);
+            }
+        }
+
+        Map<String, Object> stats = routingDataSource.getStats();
+        out.header("db_routed_connections_total", "counter", "Connections routed by kind");
+        out.sample("db_routed_connections_total", ((Number) stats.get("writes")).doubleValue(),
+                "kind", "write");
+        out.sample("db_routed_connections_total", ((Number) stats.get("primaryReads")).doubleValue(),
+                "kind", "primary_read");
+        out.sample("db_routed_connections_total", ((Number) stats.get("replicaReads")).doubleValue(),
+                "kind", "replica_read");
+    }
+}
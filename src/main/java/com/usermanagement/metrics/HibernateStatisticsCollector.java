@@ -0,0 +1,109 @@
+package com.usermanagement.metrics;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes Hibernate {@link Statistics}: statement and entity counters, cache
+ * hit rates per region and the slowest HQL queries by maximum execution time.
+ * Requires {@code hibernate.generate_statistics=true}.
+ */
+public class HibernateStatisticsCollector implements MetricsCollector {
+
+    private SessionFactory sessionFactory;
+
+    private int slowQueryLimit = 10;
+
+    public void setSessionFactory(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public void setSlowQueryLimit(int slowQueryLimit) {
+        this.slowQueryLimit = slowQueryLimit;
+    }
+
+    @Override
+    public void collect(PrometheusTextWriter out) throws IOException {
+        Statistics statistics = sessionFactory.getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+
+        out.metric("hibernate_sessions_opened_total", "counter", "Sessions opened",
+                statistics.getSessionOpenCount());
+        out.metric("hibernate_transactions_total", "counter", "Transactions completed",
+                statistics.getTransactionCount());
+        out.metric("hibernate_statements_prepared_total", "counter", "JDBC statements prepared",
+                statistics.getPrepareStatementCount());
+        out.metric("hibernate_queries_executed_total", "counter", "HQL/SQL queries executed",
+                statistics.getQueryExecutionCount());
+        out.metric("hibernate_query_execution_max_seconds", "gauge", "Slowest query execution so far",
+                statistics.getQueryExecutionMaxTime() / 1000.0);
+        out.metric("hibernate_flushes_total", "counter", "Session flushes",
+                statistics.getFlushCount());
+        out.metric("hibernate_optimistic_failures_total", "counter", "Optimistic lock failures",
+                statistics.getOptimisticFailureCount());
+
+        out.header("hibernate_entity_operations_total", "counter", "Entity operations by type");
+        out.sample("hibernate_entity_operations_total", statistics.getEntityLoadCount(), "operation", "load");
+        out.sample("hibernate_entity_operations_total", statistics.getEntityFetchCount(), "operation", "fetch");
+        out.sample("hibernate_entity_operations_total", statistics.getEntityInsertCount(), "operation", "insert");
+        out.sample("hibernate_entity_operations_total", statistics.getEntityUpdateCount(), "operation", "update");
+        out.sample("hibernate_entity_operations_total", statistics.getEntityDeleteCount(), "operation", "delete");
+
+        out.header("hibernate_cache_requests_total", "counter", "Second-level and query cache lookups");
+        out.sample("hibernate_cache_requests_total", statistics.getQueryCacheHitCount(),
+                "region", "query", "result", "hit");
+        out.sample("hibernate_cache_requests_total", statistics.getQueryCacheMissCount(),
+                "region", "query", "result", "miss");
+        out.sample("hibernate_cache_requests_total", statistics.getNaturalIdCacheHitCount(),
+                "region", "natural-id", "result", "hit");
+        out.sample("hibernate_cache_requests_total", statistics.getNaturalIdCacheMissCount(),
+                "region", "natural-id", "result", "miss");
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                out.sample("hibernate_cache_requests_total", region.getHitCount(),
+                        "region", regionName, "result", "hit");
+                out.sample("hibernate_cache_requests_total", region.getMissCount(),
+                        "region", regionName, "result", "miss");
+            }
+        }
+
+        writeSlowQueries(out, statistics);
+    }
+
+    private void writeSlowQueries(PrometheusTextWriter out, Statistics statistics) throws IOException {
+        List<Map.Entry<String, QueryStatistics>> slowest = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            slowest.add(new AbstractMap.SimpleImmutableEntry<>(query, statistics.getQueryStatistics(query)));
+        }
+        slowest.sort(Comparator.comparingLong(
+                (Map.Entry<String, QueryStatistics> entry) -> entry.getValue().getExecutionMaxTime()).reversed());
+        if (slowest.size() > slowQueryLimit) {
+            slowest = slowest.subList(0, slowQueryLimit);
+        }
+
+        out.header("hibernate_slow_query_max_seconds", "gauge",
+                "Maximum execution time of the slowest queries");
+        for (Map.Entry<String, QueryStatistics> entry : slowest) {
+            out.sample("hibernate_slow_query_max_seconds", entry.getValue().getExecutionMaxTime() / 1000.0,
+                    "query", entry.getKey());
+        }
+        out.header("hibernate_slow_query_executions_total", "counter",
+                "Executions of the slowest queries");
+        for (Map.Entry<String, QueryStatistics> entry : slowest) {
+            out.sample("hibernate_slow_query_executions_total", entry.getValue().getExecutionCount(),
+                    "query", entry.getKey());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.usermanagement.metrics;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Records request latency per HTTP method, Spring MVC route pattern (e.g.
+ * {@code /api/users/{id}}) and status, and the SQL statements each route runs
+ * against its {@link QueryBudgets} entry ({@code GET /api/users/{id}}).
+ * Requests that no handler matched are grouped under "unmatched" so arbitrary
+ * URLs cannot create new series.
+ * <p>
+ * Asynchronous requests are recorded when they complete, with the statements
+ * {@link AsyncSqlStatementInterceptor} counted on the executor thread.
+ */
+public class HttpMetricsFilter extends OncePerRequestFilter {
+
+    static final String DURATION = "usermanagement_http_request_duration_seconds";
+
+    private MetricsRegistry registry;
+
+    private QueryBudgets queryBudgets;
+
+    public void setRegistry(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void setQueryBudgets(QueryBudgets queryBudgets) {
+        this.queryBudgets = queryBudgets;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long statementsBefore = SqlStatementCounter.current();
+        long start = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+            if (request.isAsyncStarted()) {
+                async = true;
+                long statements = SqlStatementCounter.current() - statementsBefore;
+                request.getAsyncContext().addListener(new CompletionListener(request, response, start, statements));
+            }
+        } finally {
+            if (!async) {
+                record(request, status, start, SqlStatementCounter.current() - statementsBefore);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, long start, long statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : "unmatched";
+        registry.histogram(DURATION, "HTTP request latency by route",
+                "method", request.getMethod(),
+                "route", route,
+                "status", Integer.toString(status))
+                .record(System.nanoTime() - start);
+
+        if (pattern != null) {
+            String scope = request.getMethod() + " " + route;
+            registry.counter(QueryBudgets.STATEMENTS, "SQL statements run, by call or route",
+                    "scope", scope).add(statements);
+            if (queryBudgets != null) {
+                // The response is committed by now, so this only logs and counts
+                queryBudgets.report(scope, queryBudgets.budgetFor(scope), statements);
+            }
+        }
+    }
+
+    private final class CompletionListener implements AsyncListener {
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final long start;
+        private final long requestThreadStatements;
+
+        CompletionListener(HttpServletRequest request, HttpServletResponse response,
+                           long start, long requestThreadStatements) {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+            this.requestThreadStatements = requestThreadStatements;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(request, response.getStatus(), start,
+                    requestThreadStatements + AsyncSqlStatementInterceptor.statementsOf(request));
+        }
+
+        // Timeouts and errors are dispatched back to the handler and still end in onComplete
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.usermanagement.metrics;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram. Recording is a bucket search and two
+ * {@link LongAdder} increments, so it is cheap on hot paths and does not
+ * contend between threads. Buckets are exported as a cumulative Prometheus
+ * histogram, which (unlike client-side percentiles) can be aggregated across
+ * instances.
+ */
+public class LatencyHistogram {
+
+    /** Upper bounds in seconds: 0.5 ms to 10 s. */
+    static final double[] BUCKETS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private static final long[] BUCKET_NANOS = Arrays.stream(BUCKETS)
+            .mapToLong(seconds -> (long) (seconds * TimeUnit.SECONDS.toNanos(1)))
+            .toArray();
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        int index = Arrays.binarySearch(BUCKET_NANOS, nanos);
+        counts[index >= 0 ? index : -index - 1].increment();
+        sumNanos.add(nanos);
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    public double getSumSeconds() {
+        return sumNanos.sum() / NANOS_PER_SECOND;
+    }
+
+    /**
+     * Writes the _bucket, _sum and _count samples; the caller writes the header.
+     */
+    public void write(PrometheusTextWriter out, String name, String... labels) throws IOException {
+        String[] bucketLabels = Arrays.copyOf(labels, labels.length + 2);
+        bucketLabels[labels.length] = "le";
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i].sum();
+            bucketLabels[labels.length + 1] = i < BUCKETS.length
+                    ? PrometheusTextWriter.format(BUCKETS[i]) : "+Inf";
+            out.sample(name + "_bucket", cumulative, bucketLabels);
+        }
+        out.sample(name + "_sum", getSumSeconds(), labels);
+        out.sample(name + "_count", cumulative, labels);
+    }
+}
@@ -0,0 +1,95 @@
+package com.usermanagement.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times service and DAO calls and counts the SQL statements each one runs,
+ * checking them against {@link QueryBudgets} under the key
+ * {@code Interface.method}. Applied with {@code <aop:advisor>} outside the
+ * transaction advice, so service timings include commit.
+ */
+public class MethodMetricsInterceptor implements MethodInterceptor {
+
+    static final String DURATION = "usermanagement_method_duration_seconds";
+    static final String ERRORS = "usermanagement_method_errors_total";
+
+    private MetricsRegistry registry;
+
+    private QueryBudgets queryBudgets;
+
+    private final ConcurrentMap<Method, MethodStats> stats = new ConcurrentHashMap<>();
+
+    public void setRegistry(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void setQueryBudgets(QueryBudgets queryBudgets) {
+        this.queryBudgets = queryBudgets;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        MethodStats methodStats = stats(method);
+        long statementsBefore = SqlStatementCounter.current();
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            failed = true;
+            registry.counter(ERRORS, "Service and DAO calls that threw, by exception type",
+                    "class", method.getDeclaringClass().getSimpleName(),
+                    "method", method.getName(),
+                    "exception", e.getClass().getSimpleName()).increment();
+            throw e;
+        } finally {
+            methodStats.timer.record(System.nanoTime() - start);
+            long statements = SqlStatementCounter.current() - statementsBefore;
+            methodStats.statements.add(statements);
+            // Don't mask the original exception with a budget failure
+            if (!failed && queryBudgets != null) {
+                queryBudgets.check(methodStats.scope, methodStats.budget, statements);
+            }
+        }
+    }
+
+    private MethodStats stats(Method method) {
+        MethodStats methodStats = stats.get(method);
+        if (methodStats == null) {
+            methodStats = stats.computeIfAbsent(method, this::createStats);
+        }
+        return methodStats;
+    }
+
+    private MethodStats createStats(Method method) {
+        String className = method.getDeclaringClass().getSimpleName();
+        String scope = className + "." + method.getName();
+        return new MethodStats(scope,
+                queryBudgets != null ? queryBudgets.budgetFor(scope) : -1,
+                registry.histogram(DURATION, "Service and DAO call latency",
+                        "class", className, "method", method.getName()),
+                registry.counter(QueryBudgets.STATEMENTS, "SQL statements run, by call or route",
+                        "scope", scope));
+    }
+
+    private static final class MethodStats {
+        final String scope;
+        final long budget;
+        final LatencyHistogram timer;
+        final LongAdder statements;
+
+        MethodStats(String scope, long budget, LatencyHistogram timer, LongAdder statements) {
+            this.scope = scope;
+            this.budget = budget;
+            this.timer = timer;
+            this.statements = statements;
+        }
+    }
+}
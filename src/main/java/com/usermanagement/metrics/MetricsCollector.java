@@ -0,0 +1,11 @@
+package com.usermanagement.metrics;
+
+import java.io.IOException;
+
+/**
+ * Contributes metrics read from another component at scrape time.
+ */
+public interface MetricsCollector {
+
+    void collect(PrometheusTextWriter out) throws IOException;
+}
@@ -0,0 +1,88 @@
+package com.usermanagement.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the application's latency histograms and counters and renders them,
+ * together with the registered {@link MetricsCollector}s, in Prometheus text
+ * format.
+ * <p>
+ * Histograms and counters are keyed by name and label values. Callers on hot
+ * paths should look them up once and keep the reference.
+ */
+public class MetricsRegistry {
+
+    private final ConcurrentMap<String, Family<LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Family<LongAdder>> counters = new ConcurrentHashMap<>();
+
+    private List<MetricsCollector> collectors = new ArrayList<>();
+
+    public void setCollectors(List<MetricsCollector> collectors) {
+        this.collectors = collectors;
+    }
+
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return histograms.computeIfAbsent(name, key -> new Family<>(help))
+                .children.computeIfAbsent(new Labels(labels), key -> new LatencyHistogram());
+    }
+
+    public LongAdder counter(String name, String help, String... labels) {
+        return counters.computeIfAbsent(name, key -> new Family<>(help))
+                .children.computeIfAbsent(new Labels(labels), key -> new LongAdder());
+    }
+
+    public void scrape(Writer writer) throws IOException {
+        PrometheusTextWriter out = new PrometheusTextWriter(writer);
+        for (Map.Entry<String, Family<LatencyHistogram>> family : histograms.entrySet()) {
+            out.header(family.getKey(), "histogram", family.getValue().help);
+            for (Map.Entry<Labels, LatencyHistogram> child : family.getValue().children.entrySet()) {
+                child.getValue().write(out, family.getKey(), child.getKey().values);
+            }
+        }
+        for (Map.Entry<String, Family<LongAdder>> family : counters.entrySet()) {
+            out.header(family.getKey(), "counter", family.getValue().help);
+            for (Map.Entry<Labels, LongAdder> child : family.getValue().children.entrySet()) {
+                out.sample(family.getKey(), child.getValue().sum(), child.getKey().values);
+            }
+        }
+        for (MetricsCollector collector : collectors) {
+            collector.collect(out);
+        }
+        writer.flush();
+    }
+
+    private static final class Family<T> {
+        final String help;
+        final ConcurrentMap<Labels, T> children = new ConcurrentHashMap<>();
+
+        Family(String help) {
+            this.help = help;
+        }
+    }
+
+    private static final class Labels {
+        final String[] values;
+
+        Labels(String[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Labels && Arrays.equals(values, ((Labels) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+}
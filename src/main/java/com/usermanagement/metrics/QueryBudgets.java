@@ -0,0 +1,78 @@
+package com.usermanagement.metrics;
+
+import com.usermanagement.exception.QueryBudgetExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Properties;
+
+/**
+ * Maximum SQL statements per service/DAO call ({@code UserService.getUserById})
+ * or per request ({@code GET /api/users/{id}}). Calls over budget are logged
+ * and counted; with {@code failOnExceed} they throw instead, which is how
+ * integration tests turn a new N+1 into a failure.
+ */
+public class QueryBudgets {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgets.class);
+
+    static final String STATEMENTS = "usermanagement_sql_statements_total";
+    static final String EXCEEDED = "usermanagement_query_budget_exceeded_total";
+
+    private Properties budgets = new Properties();
+
+    private boolean failOnExceed;
+
+    private MetricsRegistry registry;
+
+    public void setBudgets(Properties budgets) {
+        this.budgets = budgets;
+    }
+
+    public void setFailOnExceed(boolean failOnExceed) {
+        this.failOnExceed = failOnExceed;
+    }
+
+    public void setRegistry(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @return the budget for the given scope, or -1 if it has none
+     */
+    public long budgetFor(String scope) {
+        String budget = budgets.getProperty(scope);
+        return budget != null ? Long.parseLong(budget.trim()) : -1;
+    }
+
+    /**
+     * Reports a call that ran {@code statements} statements against a budget
+     * previously looked up with {@link #budgetFor(String)}, throwing if
+     * {@code failOnExceed} is set.
+     */
+    public void check(String scope, long budget, long statements) {
+        if (report(scope, budget, statements) && failOnExceed) {
+            throw new QueryBudgetExceededException(message(scope, budget, statements));
+        }
+    }
+
+    /**
+     * Logs and counts an over-budget call without throwing, for callers that
+     * can no longer fail it (e.g. after the response is committed).
+     *
+     * @return true if the budget was exceeded
+     */
+    public boolean report(String scope, long budget, long statements) {
+        if (budget < 0 || statements <= budget) {
+            return false;
+        }
+        registry.counter(EXCEEDED, "Calls and requests that ran more SQL statements than budgeted",
+                "scope", scope).increment();
+        logger.warn("Query budget exceeded: {}", message(scope, budget, statements));
+        return true;
+    }
+
+    private static String message(String scope, long budget, long statements) {
+        return scope + " ran " + statements + " SQL statements, budget is " + budget;
+    }
+}
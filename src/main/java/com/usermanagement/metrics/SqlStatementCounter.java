@@ -0,0 +1,60 @@
+package com.usermanagement.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * Registered as {@code hibernate.session_factory.statement_inspector}, so it
+ * sees every query, insert, update and delete (a JDBC batch counts once) but
+ * not second-level or query cache hits, which never reach the database.
+ * <p>
+ * The per-thread count only grows, so nested scopes measure independently:
+ * <pre>
+ * SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+ * userService.getUserById(id);
+ * scope.assertAtMost(1, "getUserById");
+ * </pre>
+ * Work handed to other threads is not attributed to the caller.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * @return statements prepared on this thread since it started
+     */
+    public static long current() {
+        return STATEMENTS.get()[0];
+    }
+
+    public static Scope open() {
+        return new Scope(current());
+    }
+
+    public static final class Scope {
+
+        private final long start;
+
+        private Scope(long start) {
+            this.start = start;
+        }
+
+        public long count() {
+            return current() - start;
+        }
+
+        public void assertAtMost(long budget, String description) {
+            long count = count();
+            if (count > budget) {
+                throw new AssertionError(description + " ran " + count
+                        + " SQL statements, budget is " + budget);
+            }
+        }
+    }
+}
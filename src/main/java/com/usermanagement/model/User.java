@@ -1,5 +1,13 @@
 package com.usermanagement.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import javax.validation.constraints.*;
 import java.time.LocalDateTime;
@@ -9,19 +17,42 @@ import java.util.Objects;
 @Table(name = "users",
         indexes = {
                 @Index(name = "idx_email", columnList = "email"),
-                @Index(name = "idx_username", columnList = "username")
+                @Index(name = "idx_username", columnList = "username"),
+                @Index(name = "idx_created_at_id", columnList = "created_at, id"),
+                @Index(name = "idx_status_created_at_id", columnList = "status, created_at, id")
         },
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_username", columnNames = "username"),
                 @UniqueConstraint(name = "uk_email", columnNames = "email")
         }
 )
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.NATURAL_ID_CACHE_REGION)
+@DynamicUpdate
 public class User {
 
+    public static final String ID_SEQUENCE_TABLE = "id_sequences";
+    public static final String ID_SEQUENCE_SEGMENT = "users";
+
+    public static final String CACHE_REGION = "users";
+    public static final String NATURAL_ID_CACHE_REGION = "users-natural-id";
+    public static final String EMAIL_QUERY_CACHE_REGION = "users-by-email";
+    public static final String DTO_QUERY_CACHE_REGION = "user-dtos";
+
+    // Pooled ids (instead of IDENTITY) let Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_id_generator")
+    @GenericGenerator(name = "user_id_generator",
+            strategy = "org.hibernate.id.enhanced.TableGenerator",
+            parameters = {
+                    @Parameter(name = "table_name", value = ID_SEQUENCE_TABLE),
+                    @Parameter(name = "segment_value", value = ID_SEQUENCE_SEGMENT),
+                    @Parameter(name = "increment_size", value = "100"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
     private Long id;
 
+    @NaturalId(mutable = true)
     @NotBlank(message = "Username is required")
     @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
     @Column(nullable = false, unique = true, length = 50, columnDefinition = "VARCHAR(50)")
@@ -0,0 +1,84 @@
+package com.usermanagement.model;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row written in the same transaction as a user write. Every node tails
+ * the table by id to invalidate its local caches; {@code origin} lets a node
+ * skip its own changes.
+ */
+@Entity
+@Table(name = UserChange.TABLE,
+        indexes = @Index(name = "idx_user_changes_changed_at", columnList = "changed_at"))
+public class UserChange {
+
+    public static final String TABLE = "user_changes";
+
+    // IDENTITY, not pooled blocks: ids must grow in insert order across nodes
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Null when the writer did not learn the new version (unversioned bulk updates, deletes)
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Operation operation;
+
+    @Column(nullable = false, length = 64)
+    private String origin;
+
+    // Comma-separated field names for updates; null when unknown or not applicable
+    @Column(name = "changed_fields", length = 500)
+    private String fields;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public enum Operation {
+        CREATE, UPDATE, DELETE
+    }
+
+    public UserChange() {}
+
+    public UserChange(Long userId, Long version, Operation operation, String origin, String fields) {
+        this.userId = userId;
+        this.version = version;
+        this.operation = operation;
+        this.origin = origin;
+        this.fields = fields;
+        this.changedAt = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public Operation getOperation() { return operation; }
+    public void setOperation(Operation operation) { this.operation = operation; }
+
+    public String getOrigin() { return origin; }
+    public void setOrigin(String origin) { this.origin = origin; }
+
+    public String getFields() { return fields; }
+    public void setFields(String fields) { this.fields = fields; }
+
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+
+    @Override
+    public String toString() {
+        return "UserChange{id=" + id + ", userId=" + userId + ", version=" + version +
+                ", operation=" + operation + ", origin='" + origin + "'}";
+    }
+}
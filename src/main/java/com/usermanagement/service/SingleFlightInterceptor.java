@@ -0,0 +1,186 @@
+package com.usermanagement.service;
+
+import com.usermanagement.datasource.ReadYourWritesTracker;
+import com.usermanagement.exception.CoalescedReadTimeoutException;
+import com.usermanagement.metrics.MetricsRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collapses concurrent identical reads into one: the first caller for a
+ * method and argument list runs it, and callers arriving while it is in
+ * flight wait for and share its result (or exception). Applied with
+ * {@code <aop:advisor>} outside the transaction advice, so waiting callers
+ * never hold a connection. Shared results must be treated as read-only.
+ * <p>
+ * Waiters give up after the per-method timeout ({@code Interface.method},
+ * falling back to {@code defaultTimeoutMillis}) with a
+ * {@link CoalescedReadTimeoutException}; the load itself is never cancelled.
+ * Clients pinned to the primary by {@link ReadYourWritesTracker} always run
+ * their own read so they see their writes.
+ */
+public class SingleFlightInterceptor implements MethodInterceptor {
+
+    static final String CALLS = "usermanagement_coalesced_calls_total";
+
+    private final ConcurrentMap<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Method, MethodStats> stats = new ConcurrentHashMap<>();
+
+    private Properties timeouts = new Properties();
+
+    private long defaultTimeoutMillis = 2000;
+
+    private ReadYourWritesTracker readYourWrites;
+
+    private MetricsRegistry registry;
+
+    public void setTimeouts(Properties timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    public void setDefaultTimeoutMillis(long defaultTimeoutMillis) {
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    public void setReadYourWrites(ReadYourWritesTracker readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    public void setRegistry(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodStats methodStats = stats(invocation.getMethod());
+        if (readYourWrites != null && readYourWrites.isPinnedToPrimary()) {
+            methodStats.bypassed.increment();
+            return invocation.proceed();
+        }
+
+        FlightKey key = new FlightKey(invocation.getMethod(), invocation.getArguments());
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return join(existing, methodStats);
+        }
+
+        methodStats.led.increment();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // Unregister first so callers arriving from now on start a fresh load
+        inFlight.remove(key, flight);
+        flight.complete(result);
+        return result;
+    }
+
+    private static Object join(CompletableFuture<Object> flight, MethodStats methodStats) throws Throwable {
+        try {
+            Object result = flight.get(methodStats.timeoutMillis, TimeUnit.MILLISECONDS);
+            methodStats.collapsed.increment();
+            return result;
+        } catch (ExecutionException e) {
+            methodStats.collapsed.increment();
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            methodStats.timedOut.increment();
+            throw new CoalescedReadTimeoutException(methodStats.scope + " did not complete within "
+                    + methodStats.timeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            methodStats.timedOut.increment();
+            throw new CoalescedReadTimeoutException(methodStats.scope + " was interrupted while waiting");
+        }
+    }
+
+    private MethodStats stats(Method method) {
+        MethodStats methodStats = stats.get(method);
+        if (methodStats == null) {
+            methodStats = stats.computeIfAbsent(method, this::createStats);
+        }
+        return methodStats;
+    }
+
+    private MethodStats createStats(Method method) {
+        String className = method.getDeclaringClass().getSimpleName();
+        String scope = className + "." + method.getName();
+        String timeout = timeouts.getProperty(scope);
+        return new MethodStats(scope,
+                timeout != null ? Long.parseLong(timeout.trim()) : defaultTimeoutMillis,
+                counter(className, method, "leader"),
+                counter(className, method, "collapsed"),
+                counter(className, method, "timeout"),
+                counter(className, method, "bypassed"));
+    }
+
+    private LongAdder counter(String className, Method method, String outcome) {
+        if (registry == null) {
+            return new LongAdder();
+        }
+        return registry.counter(CALLS, "Coalesced read calls: leader ran the load, collapsed shared it",
+                "class", className, "method", method.getName(), "outcome", outcome);
+    }
+
+    private static final class FlightKey {
+        final Method method;
+        final Object[] args;
+        final int hash;
+
+        FlightKey(Method method, Object[] args) {
+            this.method = method;
+            this.args = args;
+            this.hash = 31 * method.hashCode() + Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FlightKey)) {
+                return false;
+            }
+            FlightKey key = (FlightKey) other;
+            return method.equals(key.method) && Arrays.equals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class MethodStats {
+        final String scope;
+        final long timeoutMillis;
+        final LongAdder led;
+        final LongAdder collapsed;
+        final LongAdder timedOut;
+        final LongAdder bypassed;
+
+        MethodStats(String scope, long timeoutMillis, LongAdder led, LongAdder collapsed,
+                    LongAdder timedOut, LongAdder bypassed) {
+            this.scope = scope;
+            this.timeoutMillis = timeoutMillis;
+            this.led = led;
+            this.collapsed = collapsed;
+            this.timedOut = timedOut;
+            this.bypassed = bypassed;
+        }
+    }
+}
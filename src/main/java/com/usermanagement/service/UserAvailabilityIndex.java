@@ -0,0 +1,160 @@
+package com.usermanagement.service;
+
+import com.usermanagement.dao.UserDAO;
+import com.usermanagement.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory Bloom filters over lowercased usernames and emails. A negative
+ * answer means the value is definitely unused, so only possible hits need a
+ * database query. Deleted or renamed values stay in the filters until the
+ * next rebuild, which only costs extra database checks.
+ */
+public class UserAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserAvailabilityIndex.class);
+
+    private UserDAO userDAO;
+
+    private long expectedInsertions = 1_000_000;
+
+    private double falsePositiveRate = 0.01;
+
+    private volatile Filters current;
+
+    // Receives writes that happen while a rebuild is scanning the table
+    private volatile Filters building;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder definiteMisses = new LongAdder();
+    private final LongAdder possibleHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final AtomicLong lastRebuildMillis = new AtomicLong();
+
+    public void setUserDAO(UserDAO userDAO) {
+        this.userDAO = userDAO;
+    }
+
+    public void setExpectedInsertions(long expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long size = Math.max(expectedInsertions, userDAO.count() * 2);
+
+        Filters next = new Filters(size, falsePositiveRate);
+        building = next;
+        try {
+            userDAO.streamUsernamesAndEmails(next::put);
+            current = next;
+        } finally {
+            building = null;
+        }
+
+        lastRebuildMillis.set(System.currentTimeMillis());
+        logger.info("Availability index rebuilt with {} entries in {} ms",
+                next.usernames.getInsertions(), System.currentTimeMillis() - start);
+    }
+
+    public boolean mightContainUsername(String username) {
+        return mightContain(current != null ? current.usernames : null, username);
+    }
+
+    public boolean mightContainEmail(String email) {
+        return mightContain(current != null ? current.emails : null, email);
+    }
+
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * Adds the values once the surrounding transaction commits, so a
+     * concurrent rebuild either sees the row or receives the values directly.
+     */
+    public void add(String username, String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(username, email);
+                }
+            });
+        } else {
+            addNow(username, email);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Filters filters = current;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lookups", lookups.sum());
+        stats.put("definiteMisses", definiteMisses.sum());
+        stats.put("possibleHits", possibleHits.sum());
+        stats.put("falsePositives", falsePositives.sum());
+        stats.put("entries", filters != null ? filters.usernames.getInsertions() : 0L);
+        stats.put("bitsPerFilter", filters != null ? filters.usernames.getBitSize() : 0L);
+        stats.put("hashFunctions", filters != null ? filters.usernames.getHashCount() : 0);
+        stats.put("lastRebuild", lastRebuildMillis.get());
+        return stats;
+    }
+
+    private boolean mightContain(BloomFilter filter, String value) {
+        lookups.increment();
+        // Until the first rebuild completes every value is a possible hit
+        if (filter != null && !filter.mightContain(normalize(value))) {
+            definiteMisses.increment();
+            return false;
+        }
+        possibleHits.increment();
+        return true;
+    }
+
+    private void addNow(String username, String email) {
+        Filters filters = current;
+        if (filters != null) {
+            filters.put(username, email);
+        }
+        Filters next = building;
+        if (next != null) {
+            next.put(username, email);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Filters {
+        final BloomFilter usernames;
+        final BloomFilter emails;
+
+        Filters(long expectedInsertions, double falsePositiveRate) {
+            this.usernames = new BloomFilter(expectedInsertions, falsePositiveRate);
+            this.emails = new BloomFilter(expectedInsertions, falsePositiveRate);
+        }
+
+        void put(String username, String email) {
+            if (username != null) {
+                usernames.put(normalize(username));
+            }
+            if (email != null) {
+                emails.put(normalize(email));
+            }
+        }
+    }
+}
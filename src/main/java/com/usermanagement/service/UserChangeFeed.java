@@ -0,0 +1,383 @@
+package com.usermanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.usermanagement.dto.UserChangeEvent;
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.model.UserChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-Sent Events feed of user creates, updates and deletes, fed by
+ * {@link UserChangePoller} with every outbox row in the order this node sees
+ * them. Event ids are outbox ids, so a client can resume on any node with
+ * {@code Last-Event-ID} while the id is still in that node's ring buffer.
+ * <p>
+ * Each event is serialized once and queued per subscriber; a shared executor
+ * drains the queues, so no request thread is held while a stream is open.
+ * A subscriber whose queue overflows, or whose resume point is no longer
+ * buffered, gets a single {@code resync} event and is disconnected: it should
+ * reload what it caches and reconnect without {@code Last-Event-ID}.
+ * <p>
+ * Writes to a stream block while the client's socket is full, so a reader
+ * that stops reading would hold a sender thread, and with it everyone else's
+ * events. {@link #dropStalled()} runs on a schedule and drops any subscriber
+ * whose current write has taken longer than {@code sendTimeoutMillis}. It
+ * interrupts the blocked sender, which ends the write on containers that
+ * honour interrupts. Tomcat does not, and the write then lasts until the
+ * connector's write timeout, so the executor gets an extra thread until the
+ * write returns.
+ */
+public class UserChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeFeed.class);
+
+    static final String SUBSCRIPTIONS = "usermanagement_change_feed_subscriptions_total";
+    static final String EVENTS_SENT = "usermanagement_change_feed_events_sent_total";
+
+    // Plain String payloads must reach StringHttpMessageConverter, not Jackson
+    private static final MediaType EVENT_DATA = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
+    private static final String RESYNC = "resync";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Subscribers with a write in progress, including those already being resynced
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolTaskExecutor executor;
+
+    private int bufferSize = 1024;
+
+    private int subscriberQueueSize = 256;
+
+    private long timeoutMillis = 1_800_000;
+
+    private long sendTimeoutMillis = 10_000;
+
+    // Most recent events in publish order; guarded by this
+    private FeedEvent[] buffer;
+
+    private long published;
+
+    private long maxPublishedId;
+
+    private LongAdder opened = new LongAdder();
+
+    private LongAdder resyncs = new LongAdder();
+
+    private LongAdder overflowed = new LongAdder();
+
+    private LongAdder stalled = new LongAdder();
+
+    private LongAdder sent = new LongAdder();
+
+    public void setExecutor(ThreadPoolTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public void setSubscriberQueueSize(int subscriberQueueSize) {
+        this.subscriberQueueSize = subscriberQueueSize;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public void setSendTimeoutMillis(long sendTimeoutMillis) {
+        this.sendTimeoutMillis = sendTimeoutMillis;
+    }
+
+    public void setRegistry(MetricsRegistry registry) {
+        String help = "Change feed subscriptions by outcome; resync, overflow and stalled end them early";
+        opened = registry.counter(SUBSCRIPTIONS, help, "outcome", "opened");
+        resyncs = registry.counter(SUBSCRIPTIONS, help, "outcome", "resync");
+        overflowed = registry.counter(SUBSCRIPTIONS, help, "outcome", "overflow");
+        stalled = registry.counter(SUBSCRIPTIONS, help, "outcome", "stalled");
+        sent = registry.counter(EVENTS_SENT, "Change feed events written to subscribers");
+    }
+
+    public void init() {
+        buffer = new FeedEvent[bufferSize];
+    }
+
+    public void publish(List<UserChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<FeedEvent> events = new ArrayList<>(changes.size());
+        for (UserChange change : changes) {
+            events.add(new FeedEvent(change.getId(), toJson(new UserChangeEvent(change))));
+        }
+
+        synchronized (this) {
+            for (FeedEvent event : events) {
+                buffer[(int) (published++ % buffer.length)] = event;
+                maxPublishedId = Math.max(maxPublishedId, event.id);
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(events);
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.schedule();
+        }
+    }
+
+    /**
+     * Opens a stream starting after {@code lastEventId}, or at the next change
+     * when it is null.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscriber.close());
+        opened.increment();
+
+        synchronized (this) {
+            List<FeedEvent> replay = replayAfter(lastEventId);
+            if (replay == null || replay.size() > subscriberQueueSize) {
+                resyncs.increment();
+                subscriber.resync();
+                return emitter;
+            }
+            subscriber.enqueue(replay);
+            subscribers.add(subscriber);
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    /** Comments keep idle streams open through proxies and find clients that went away. */
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat = true;
+            subscriber.schedule();
+        }
+    }
+
+    /** Drops subscribers whose current write has been blocked longer than {@code sendTimeoutMillis}. */
+    public void dropStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : sending) {
+            if (subscriber.dropIfStalled(now, TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis))) {
+                resizeSenders(1);
+            }
+        }
+    }
+
+    // Grows the max before the core and shrinks the core first, so core never exceeds max
+    private synchronized void resizeSenders(int delta) {
+        if (delta > 0) {
+            executor.setMaxPoolSize(executor.getMaxPoolSize() + delta);
+            executor.setCorePoolSize(executor.getCorePoolSize() + delta);
+        } else {
+            executor.setCorePoolSize(executor.getCorePoolSize() + delta);
+            executor.setMaxPoolSize(executor.getMaxPoolSize() + delta);
+        }
+    }
+
+    // Null when the client is behind what the buffer still holds
+    private List<FeedEvent> replayAfter(String lastEventId) {
+        if (lastEventId == null || lastEventId.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        long after;
+        try {
+            after = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        long oldest = Math.max(0, published - buffer.length);
+        for (long seq = published - 1; seq >= oldest; seq--) {
+            if (buffer[(int) (seq % buffer.length)].id == after) {
+                List<FeedEvent> replay = new ArrayList<>((int) (published - seq - 1));
+                for (long next = seq + 1; next < published; next++) {
+                    replay.add(buffer[(int) (next % buffer.length)]);
+                }
+                return replay;
+            }
+        }
+        // Not buffered: fine if nothing newer was published here yet, otherwise events were lost
+        return after >= maxPublishedId ? Collections.emptyList() : null;
+    }
+
+    private String toJson(UserChangeEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize change event for user " + event.getUserId(), e);
+        }
+    }
+
+    private static final class FeedEvent {
+        final long id;
+        final String json;
+
+        FeedEvent(long id, String json) {
+            this.id = id;
+            this.json = json;
+        }
+    }
+
+    /**
+     * One open stream. At most one drain runs at a time, so events are
+     * written in queue order and heartbeats never interleave with them.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<FeedEvent> queue = new ArrayBlockingQueue<>(subscriberQueueSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean resync;
+        private volatile boolean heartbeat;
+        private volatile boolean closed;
+        // Guarded by this: the thread in send(), since when, and whether it was dropped meanwhile
+        private Thread sender;
+        private long sendStarted;
+        private boolean dropped;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Called with the feed locked, so replay and live events never interleave
+        void enqueue(List<FeedEvent> events) {
+            for (FeedEvent event : events) {
+                if (!queue.offer(event)) {
+                    overflowed.increment();
+                    logger.debug("Change feed subscriber fell {} events behind; asking it to resync",
+                            subscriberQueueSize);
+                    resync();
+                    return;
+                }
+            }
+        }
+
+        void resync() {
+            subscribers.remove(this);
+            queue.clear();
+            resync = true;
+            schedule();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        void schedule() {
+            if (closed || !draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                overflowed.increment();
+                close();
+                emitter.complete();
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    if (resync) {
+                        close();
+                        send(SseEmitter.event().name(RESYNC).data(RESYNC, EVENT_DATA));
+                        emitter.complete();
+                        return;
+                    }
+                    FeedEvent event = queue.poll();
+                    if (event != null) {
+                        send(SseEmitter.event().id(Long.toString(event.id)).data(event.json, EVENT_DATA));
+                        sent.increment();
+                    } else if (heartbeat) {
+                        heartbeat = false;
+                        send(SseEmitter.event().comment(""));
+                    } else {
+                        break;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the container reports it through onError/onCompletion too
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // Work that arrived after the last poll but before draining was cleared
+            if (!closed && (resync || heartbeat || !queue.isEmpty())) {
+                schedule();
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            synchronized (this) {
+                sender = Thread.currentThread();
+                sendStarted = System.nanoTime();
+            }
+            sending.add(this);
+            boolean wasDropped;
+            try {
+                emitter.send(event);
+            } finally {
+                sending.remove(this);
+                synchronized (this) {
+                    sender = null;
+                    wasDropped = dropped;
+                    dropped = false;
+                    // An interrupt meant for this send must not reach the next subscriber's drain
+                    Thread.interrupted();
+                }
+                if (wasDropped) {
+                    resizeSenders(-1);
+                }
+            }
+            if (wasDropped) {
+                // The client caught up after all, but it has already lost its place in the feed
+                emitter.complete();
+            }
+        }
+
+        /** Drops this subscriber if its current write started more than {@code limitNanos} ago. */
+        synchronized boolean dropIfStalled(long now, long limitNanos) {
+            if (sender == null || dropped || now - sendStarted < limitNanos) {
+                return false;
+            }
+            stalled.increment();
+            logger.debug("Change feed subscriber has not accepted a write for {} ms; dropping it",
+                    TimeUnit.NANOSECONDS.toMillis(now - sendStarted));
+            close();
+            dropped = true;
+            sender.interrupt();
+            return true;
+        }
+    }
+}
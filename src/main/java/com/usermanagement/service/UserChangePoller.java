@@ -0,0 +1,236 @@
+package com.usermanagement.service;
+
+import com.usermanagement.dao.UserChangeDAO;
+import com.usermanagement.dao.UserDAO;
+import com.usermanagement.metrics.LatencyHistogram;
+import com.usermanagement.metrics.MetricsRegistry;
+import com.usermanagement.model.User;
+import com.usermanagement.model.UserChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tails the {@code user_changes} outbox and applies changes made by other
+ * nodes to this node's in-process state: second-level and query cache
+ * entries are evicted, the availability index learns new usernames and
+ * emails, and the user counters are reconciled. A change is therefore
+ * visible here at most about one {@code poll} interval after it commits.
+ * <p>
+ * Rows are read past a high-water mark. Auto-increment ids are assigned
+ * at insert but become visible at commit, so an id skipped over may still
+ * appear; such gaps are re-checked until they show up or are older than
+ * {@code gapTimeoutMillis} (ids lost to rollbacks never appear).
+ * <p>
+ * Every row, including this node's own, is then published to the
+ * {@link UserChangeFeed} when one is configured.
+ * <p>
+ * Changed users are re-read in a read-write transaction, so the read goes to
+ * the primary. A replica may not have the change yet, and what is read here
+ * refills the second-level cache and the indexes.
+ */
+public class UserChangePoller {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangePoller.class);
+
+    static final String APPLIED = "usermanagement_user_changes_applied_total";
+    static final String GAPS = "usermanagement_user_change_gaps_total";
+    static final String PROPAGATION = "usermanagement_user_change_propagation_seconds";
+
+    private UserChangeDAO userChangeDAO;
+
+    private UserDAO userDAO;
+
+    private UserAvailabilityIndex availabilityIndex;
+
+    private UserSearchIndex searchIndex;
+
+    private UserCounters userCounters;
+
+    private UserChangeFeed feed;
+
+    private TransactionTemplate transactionTemplate;
+
+    private int batchSize = 500;
+
+    private long gapTimeoutMillis = 10_000;
+
+    private int maxGaps = 10_000;
+
+    private long retentionMillis = 86_400_000;
+
+    private volatile long highWaterMark;
+
+    // Skipped ids and when they were first skipped, oldest first
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    private LongAdder applied = new LongAdder();
+
+    private LongAdder gapsRecovered = new LongAdder();
+
+    private LongAdder gapsExpired = new LongAdder();
+
+    private LatencyHistogram propagation = new LatencyHistogram();
+
+    public void setUserChangeDAO(UserChangeDAO userChangeDAO) {
+        this.userChangeDAO = userChangeDAO;
+    }
+
+    public void setUserDAO(UserDAO userDAO) {
+        this.userDAO = userDAO;
+    }
+
+    public void setAvailabilityIndex(UserAvailabilityIndex availabilityIndex) {
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    public void setSearchIndex(UserSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    public void setUserCounters(UserCounters userCounters) {
+        this.userCounters = userCounters;
+    }
+
+    public void setFeed(UserChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void setRegistry(MetricsRegistry registry) {
+        applied = registry.counter(APPLIED, "Users changed on other nodes and evicted from local caches");
+        gapsRecovered = registry.counter(GAPS, "Outbox ids skipped by the high-water mark, by outcome",
+                "outcome", "recovered");
+        gapsExpired = registry.counter(GAPS, "Outbox ids skipped by the high-water mark, by outcome",
+                "outcome", "expired");
+        propagation = registry.histogram(PROPAGATION,
+                "Time from a change being written on another node to its eviction here (includes clock skew)");
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setGapTimeoutMillis(long gapTimeoutMillis) {
+        this.gapTimeoutMillis = gapTimeoutMillis;
+    }
+
+    public void setMaxGaps(int maxGaps) {
+        this.maxGaps = maxGaps;
+    }
+
+    public void setRetentionMillis(long retentionMillis) {
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * Starts from the current end of the outbox: the caches are empty at
+     * startup, so older changes have nothing to invalidate.
+     */
+    public void init() {
+        highWaterMark = userChangeDAO.findMaxId();
+        logger.info("Polling user changes after id {} as node {}", highWaterMark, userChangeDAO.getNodeId());
+    }
+
+    public synchronized void poll() {
+        List<UserChange> changes = new ArrayList<>(userChangeDAO.findByIds(gaps.keySet()));
+
+        long mark = highWaterMark;
+        Map<Long, Long> skipped = new LinkedHashMap<>();
+        List<UserChange> batch;
+        do {
+            batch = userChangeDAO.findAfter(mark, batchSize);
+            long now = System.currentTimeMillis();
+            for (UserChange change : batch) {
+                for (long id = mark + 1; id < change.getId() && gaps.size() + skipped.size() < maxGaps; id++) {
+                    skipped.put(id, now);
+                }
+                mark = change.getId();
+            }
+            changes.addAll(batch);
+        } while (batch.size() == batchSize);
+
+        // Only move past the rows once they are applied, so a failed poll retries them
+        apply(changes);
+        if (feed != null) {
+            feed.publish(changes);
+        }
+        for (UserChange change : changes) {
+            if (gaps.remove(change.getId()) != null) {
+                gapsRecovered.increment();
+            }
+        }
+        gaps.putAll(skipped);
+        highWaterMark = mark;
+        expireGaps();
+    }
+
+    private void expireGaps() {
+        long cutoff = System.currentTimeMillis() - gapTimeoutMillis;
+        Iterator<Long> firstSeen = gaps.values().iterator();
+        while (firstSeen.hasNext() && firstSeen.next() < cutoff) {
+            firstSeen.remove();
+            gapsExpired.increment();
+        }
+    }
+
+    private void apply(List<UserChange> changes) {
+        Set<Long> changed = new LinkedHashSet<>();
+        Set<Long> refresh = new LinkedHashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (UserChange change : changes) {
+            if (userChangeDAO.getNodeId().equals(change.getOrigin())) {
+                continue;
+            }
+            changed.add(change.getUserId());
+            propagation.record(Math.max(0, Duration.between(change.getChangedAt(), now).toNanos()));
+            if (change.getOperation() != UserChange.Operation.DELETE) {
+                refresh.add(change.getUserId());
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        userDAO.evictFromCache(changed);
+        // Whatever is not found below was deleted, possibly after an update in the same batch
+        Set<Long> gone = new LinkedHashSet<>(changed);
+        if (!refresh.isEmpty()) {
+            List<User> refreshed = transactionTemplate.execute(status -> userDAO.findAllByIds(refresh));
+            for (User user : refreshed) {
+                availabilityIndex.add(user.getUsername(), user.getEmail());
+                searchIndex.put(user);
+                gone.remove(user.getId());
+            }
+        }
+        for (Long id : gone) {
+            searchIndex.remove(id);
+        }
+        userCounters.recordChangedUnknown();
+        userCounters.reconcileIfStale();
+
+        applied.add(changed.size());
+        logger.debug("Applied {} user change(s) from other nodes", changed.size());
+    }
+
+    public void purge() {
+        int deleted = userChangeDAO.deleteOlderThan(LocalDateTime.now().minusNanos(retentionMillis * 1_000_000));
+        if (deleted > 0) {
+            logger.info("Purged {} user change(s) older than {} ms", deleted, retentionMillis);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.usermanagement.service;
+
+import com.usermanagement.dao.UserDAO;
+import com.usermanagement.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory user counts per status and role. Seeded from the database,
+ * adjusted after each committed write and periodically reconciled to
+ * correct any drift. Writes that do not know the affected row's status or
+ * role mark the counters stale so the next stale check reconciles them.
+ */
+public class UserCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCounters.class);
+
+    private static final User.UserStatus[] STATUSES = User.UserStatus.values();
+    private static final User.UserRole[] ROLES = User.UserRole.values();
+
+    private UserDAO userDAO;
+
+    private volatile AtomicLongArray counts = new AtomicLongArray(STATUSES.length * ROLES.length);
+
+    // Deletes whose status/role is unknown; keeps the total exact until reconciled
+    private final AtomicLong unattributed = new AtomicLong();
+
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    public void setUserDAO(UserDAO userDAO) {
+        this.userDAO = userDAO;
+    }
+
+    public void reconcile() {
+        stale.set(false);
+        AtomicLongArray fresh = new AtomicLongArray(STATUSES.length * ROLES.length);
+        for (Object[] row : userDAO.countByStatusAndRole()) {
+            fresh.set(index((User.UserStatus) row[0], (User.UserRole) row[1]), ((Number) row[2]).longValue());
+        }
+
+        long before = getTotal();
+        counts = fresh;
+        unattributed.set(0);
+        long after = sum(fresh);
+        if (before != after) {
+            logger.info("User counters reconciled: total {} -> {}", before, after);
+        }
+    }
+
+    public void reconcileIfStale() {
+        if (stale.get()) {
+            reconcile();
+        }
+    }
+
+    public void recordCreated(User.UserStatus status, User.UserRole role) {
+        afterCommit(() -> counts.incrementAndGet(index(status, role)));
+    }
+
+    public void recordDeleted(User.UserStatus status, User.UserRole role) {
+        afterCommit(() -> counts.decrementAndGet(index(status, role)));
+    }
+
+    public void recordDeletedUnknown() {
+        afterCommit(() -> {
+            unattributed.decrementAndGet();
+            stale.set(true);
+        });
+    }
+
+    public void recordChangedUnknown() {
+        afterCommit(() -> stale.set(true));
+    }
+
+    public void recordChanged(User.UserStatus oldStatus, User.UserRole oldRole,
+                              User.UserStatus newStatus, User.UserRole newRole) {
+        if (oldStatus == newStatus && oldRole == newRole) {
+            return;
+        }
+        afterCommit(() -> {
+            AtomicLongArray current = counts;
+            current.decrementAndGet(index(oldStatus, oldRole));
+            current.incrementAndGet(index(newStatus, newRole));
+        });
+    }
+
+    public long getTotal() {
+        return sum(counts) + unattributed.get();
+    }
+
+    public long getCount(User.UserStatus status) {
+        AtomicLongArray current = counts;
+        long total = 0;
+        for (User.UserRole role : ROLES) {
+            total += current.get(index(status, role));
+        }
+        return total;
+    }
+
+    public Map<String, Object> getBreakdown() {
+        AtomicLongArray current = counts;
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        Map<String, Long> byRole = new LinkedHashMap<>();
+        long total = 0;
+        for (User.UserStatus status : STATUSES) {
+            for (User.UserRole role : ROLES) {
+                long count = current.get(index(status, role));
+                byStatus.merge(status.name(), count, Long::sum);
+                byRole.merge(role.name(), count, Long::sum);
+                total += count;
+            }
+        }
+
+        Map<String, Object> breakdown = new LinkedHashMap<>();
+        breakdown.put("total", total + unattributed.get());
+        breakdown.put("byStatus", byStatus);
+        breakdown.put("byRole", byRole);
+        breakdown.put("stale", stale.get());
+        return breakdown;
+    }
+
+    private static int index(User.UserStatus status, User.UserRole role) {
+        return status.ordinal() * ROLES.length + role.ordinal();
+    }
+
+    private static long sum(AtomicLongArray array) {
+        long total = 0;
+        for (int i = 0; i < array.length(); i++) {
+            total += array.get(i);
+        }
+        return total;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
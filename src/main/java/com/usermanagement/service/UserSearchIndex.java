@@ -0,0 +1,505 @@
+package com.usermanagement.service;
+
+import com.usermanagement.dao.UserDAO;
+import com.usermanagement.dto.UserSearchHit;
+import com.usermanagement.dto.UserSearchResult;
+import com.usermanagement.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory n-gram index over username, email, first and last name, so
+ * searches never scan the users table. Query terms of three or more
+ * characters match anywhere in a field, through the trigrams they contain;
+ * shorter terms match the start of a field or of a word in it (after a
+ * '.', '@', space and so on), through grams padded with a boundary marker.
+ * <p>
+ * Posting lists are sorted int arrays of document slots and are intersected
+ * smallest first. Every candidate is then checked against its fields, so
+ * results are exact, and ranked: exact over prefix over word prefix over
+ * substring matches, then username over email over last and first name.
+ * <p>
+ * Writes are applied once their transaction commits. A rebuild replays the
+ * writes made while it scanned the table, so it never loses them.
+ */
+public class UserSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    public static final int MAX_QUERY_LENGTH = 100;
+
+    private static final int MAX_TERMS = 8;
+
+    private static final char BOUNDARY = '\u0001';
+
+    // Match kinds, best first; a term scores kind * FIELDS + field, lower is better
+    private static final int NO_MATCH = -1;
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 3;
+    private static final int FIELDS = 4;
+
+    private static final Comparator<Match> BEST_FIRST = Comparator.<Match>comparingInt(m -> m.score)
+            .thenComparingInt(m -> m.hit.getUsername().length())
+            .thenComparing(m -> m.hit.getId());
+
+    private UserDAO userDAO;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Index current = new Index();
+
+    // Writes made while a rebuild scans the table, replayed onto its result; guarded by lock
+    private List<Consumer<Index>> pendingWrites;
+
+    private final LongAdder searches = new LongAdder();
+    private final AtomicLong lastRebuildMillis = new AtomicLong();
+
+    public void setUserDAO(UserDAO userDAO) {
+        this.userDAO = userDAO;
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index next = new Index();
+        try {
+            userDAO.streamSearchHits(next::put);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // The scan may have read rows from before these writes committed
+            pendingWrites.forEach(write -> write.accept(next));
+            pendingWrites = null;
+            current = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuildMillis.set(System.currentTimeMillis());
+        logger.info("Search index rebuilt with {} users and {} grams in {} ms",
+                next.count, next.grams.size(), System.currentTimeMillis() - start);
+    }
+
+    public void put(User user) {
+        UserSearchHit hit = new UserSearchHit(user);
+        afterCommit(index -> index.put(hit));
+    }
+
+    /** Applies the searchable entries of a partial update; other fields are ignored. */
+    public void patch(Long id, Map<String, Object> fields) {
+        Map<String, String> searchable = new HashMap<>();
+        for (String field : Arrays.asList("username", "email", "firstName", "lastName")) {
+            if (fields.containsKey(field)) {
+                Object value = fields.get(field);
+                searchable.put(field, value != null ? value.toString() : null);
+            }
+        }
+        if (!searchable.isEmpty()) {
+            afterCommit(index -> index.patch(id, searchable));
+        }
+    }
+
+    public void remove(Long id) {
+        afterCommit(index -> index.remove(id));
+    }
+
+    /**
+     * @throws IllegalArgumentException for an empty or overlong query
+     */
+    public UserSearchResult search(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        String[] terms = Arrays.stream(lower(query.trim()).split("\\s+"))
+                .distinct()
+                .limit(MAX_TERMS)
+                .toArray(String[]::new);
+        int max = limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        searches.increment();
+        lock.readLock().lock();
+        try {
+            return current.search(query.trim(), terms, max);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            long postings = 0;
+            for (Postings list : current.grams.values()) {
+                postings += list.size;
+            }
+            stats.put("users", current.count);
+            stats.put("grams", current.grams.size());
+            stats.put("postings", postings);
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("searches", searches.sum());
+        stats.put("lastRebuild", lastRebuildMillis.get());
+        return stats;
+    }
+
+    private void afterCommit(Consumer<Index> write) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(write);
+                }
+            });
+        } else {
+            apply(write);
+        }
+    }
+
+    private void apply(Consumer<Index> write) {
+        lock.writeLock().lock();
+        try {
+            write.accept(current);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Per char, so lowercased text lines up with the original for regionMatches
+    private static String lower(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static long gram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static boolean isWordStart(CharSequence value, int i) {
+        return i == 0 || !Character.isLetterOrDigit(value.charAt(i - 1));
+    }
+
+    private static final class Match {
+        final UserSearchHit hit;
+        final int score;
+
+        Match(UserSearchHit hit, int score) {
+            this.hit = hit;
+            this.score = score;
+        }
+    }
+
+    /** Not thread-safe; {@link UserSearchIndex} guards it with its lock. */
+    private static final class Index {
+        final Map<Long, Postings> grams = new HashMap<>();
+        final Map<Long, Integer> slotsById = new HashMap<>();
+        UserSearchHit[] docs = new UserSearchHit[1024];
+        int slotsUsed;
+        int[] freeSlots = new int[64];
+        int freeCount;
+        int count;
+
+        void put(UserSearchHit hit) {
+            Integer slot = slotsById.get(hit.getId());
+            if (slot != null) {
+                unindex(slot);
+            } else {
+                slot = allocate();
+                slotsById.put(hit.getId(), slot);
+                count++;
+            }
+            docs[slot] = hit;
+            for (long gram : gramsOf(hit)) {
+                grams.computeIfAbsent(gram, g -> new Postings()).add(slot);
+            }
+        }
+
+        void patch(Long id, Map<String, String> fields) {
+            Integer slot = slotsById.get(id);
+            if (slot == null) {
+                return;
+            }
+            UserSearchHit old = docs[slot];
+            put(new UserSearchHit(id,
+                    fields.containsKey("username") ? fields.get("username") : old.getUsername(),
+                    fields.containsKey("email") ? fields.get("email") : old.getEmail(),
+                    fields.containsKey("firstName") ? fields.get("firstName") : old.getFirstName(),
+                    fields.containsKey("lastName") ? fields.get("lastName") : old.getLastName()));
+        }
+
+        void remove(Long id) {
+            Integer slot = slotsById.remove(id);
+            if (slot == null) {
+                return;
+            }
+            unindex(slot);
+            docs[slot] = null;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            count--;
+        }
+
+        private int allocate() {
+            if (freeCount > 0) {
+                return freeSlots[--freeCount];
+            }
+            if (slotsUsed == docs.length) {
+                docs = Arrays.copyOf(docs, docs.length * 2);
+            }
+            return slotsUsed++;
+        }
+
+        private void unindex(int slot) {
+            for (long gram : gramsOf(docs[slot])) {
+                Postings list = grams.get(gram);
+                if (list != null) {
+                    list.remove(slot);
+                    if (list.size == 0) {
+                        grams.remove(gram);
+                    }
+                }
+            }
+        }
+
+        UserSearchResult search(String query, String[] terms, int limit) {
+            long[] required = termGrams(terms);
+            Postings[] lists = new Postings[required.length];
+            for (int i = 0; i < required.length; i++) {
+                lists[i] = grams.get(required[i]);
+                if (lists[i] == null) {
+                    return new UserSearchResult(query, 0, Collections.emptyList());
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            int[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int candidateCount = candidates.length;
+            for (int i = 1; i < lists.length && candidateCount > 0; i++) {
+                candidateCount = lists[i].retainAll(candidates, candidateCount);
+            }
+
+            PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+            int total = 0;
+            for (int i = 0; i < candidateCount; i++) {
+                UserSearchHit hit = docs[candidates[i]];
+                int score = score(hit, terms);
+                if (score == NO_MATCH) {
+                    continue;
+                }
+                total++;
+                Match match = new Match(hit, score);
+                if (top.size() < limit) {
+                    top.add(match);
+                } else if (BEST_FIRST.compare(match, top.peek()) < 0) {
+                    top.poll();
+                    top.add(match);
+                }
+            }
+
+            List<Match> ranked = new ArrayList<>(top);
+            ranked.sort(BEST_FIRST);
+            List<UserSearchHit> users = new ArrayList<>(ranked.size());
+            for (Match match : ranked) {
+                users.add(match.hit);
+            }
+            return new UserSearchResult(query, total, users);
+        }
+    }
+
+    /** Sorted, duplicate-free int list that grows as needed. */
+    private static final class Postings {
+        int[] ids = new int[2];
+        int size;
+
+        void add(int id) {
+            int at = size;
+            if (size > 0 && ids[size - 1] >= id) {
+                at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                at = -at - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+
+        /** Keeps the first {@code n} sorted values that are also in this list; returns how many. */
+        int retainAll(int[] values, int n) {
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < n && from < size; i++) {
+                int at = Arrays.binarySearch(ids, from, size, values[i]);
+                if (at >= 0) {
+                    values[kept++] = values[i];
+                    from = at + 1;
+                } else {
+                    from = -at - 1;
+                }
+            }
+            return kept;
+        }
+    }
+
+    // Trigrams of every field, plus boundary grams for the first one and two characters of each word
+    private static long[] gramsOf(UserSearchHit hit) {
+        GramBuffer buffer = new GramBuffer();
+        for (String field : new String[] {hit.getUsername(), hit.getEmail(), hit.getFirstName(), hit.getLastName()}) {
+            if (field == null || field.isEmpty()) {
+                continue;
+            }
+            String value = lower(field);
+            for (int i = 0; i < value.length(); i++) {
+                if (i + 2 < value.length()) {
+                    buffer.add(gram(value.charAt(i), value.charAt(i + 1), value.charAt(i + 2)));
+                }
+                if (isWordStart(value, i)) {
+                    buffer.add(gram(BOUNDARY, BOUNDARY, value.charAt(i)));
+                    if (i + 1 < value.length()) {
+                        buffer.add(gram(BOUNDARY, value.charAt(i), value.charAt(i + 1)));
+                    }
+                }
+            }
+        }
+        return buffer.distinct();
+    }
+
+    private static long[] termGrams(String[] terms) {
+        GramBuffer buffer = new GramBuffer();
+        for (String term : terms) {
+            if (term.length() == 1) {
+                buffer.add(gram(BOUNDARY, BOUNDARY, term.charAt(0)));
+            } else if (term.length() == 2) {
+                buffer.add(gram(BOUNDARY, term.charAt(0), term.charAt(1)));
+            } else {
+                for (int i = 0; i + 2 < term.length(); i++) {
+                    buffer.add(gram(term.charAt(i), term.charAt(i + 1), term.charAt(i + 2)));
+                }
+            }
+        }
+        return buffer.distinct();
+    }
+
+    /** Sum of each term's best score over the fields, or NO_MATCH if any term matches none. */
+    private static int score(UserSearchHit hit, String[] terms) {
+        int total = 0;
+        for (String term : terms) {
+            int best = Integer.MAX_VALUE;
+            best = best(best, matchKind(hit.getUsername(), term), 0);
+            best = best(best, matchKind(hit.getEmail(), term), 1);
+            best = best(best, matchKind(hit.getLastName(), term), 2);
+            best = best(best, matchKind(hit.getFirstName(), term), 3);
+            if (best == Integer.MAX_VALUE) {
+                return NO_MATCH;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int best(int best, int kind, int field) {
+        return kind == NO_MATCH ? best : Math.min(best, kind * FIELDS + field);
+    }
+
+    // Terms shorter than a trigram only match at the start of a field or word
+    private static int matchKind(String value, String term) {
+        if (value == null || value.length() < term.length()) {
+            return NO_MATCH;
+        }
+        if (value.regionMatches(true, 0, term, 0, term.length())) {
+            return value.length() == term.length() ? EXACT : PREFIX;
+        }
+        boolean substring = false;
+        for (int i = 1; i + term.length() <= value.length(); i++) {
+            if (value.regionMatches(true, i, term, 0, term.length())) {
+                if (isWordStart(value, i)) {
+                    return WORD_PREFIX;
+                }
+                substring = true;
+            }
+        }
+        return substring && term.length() >= 3 ? SUBSTRING : NO_MATCH;
+    }
+
+    private static final class GramBuffer {
+        long[] grams = new long[64];
+        int size;
+
+        void add(long gram) {
+            if (size == grams.length) {
+                grams = Arrays.copyOf(grams, size * 2);
+            }
+            grams[size++] = gram;
+        }
+
+        long[] distinct() {
+            Arrays.sort(grams, 0, size);
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (unique == 0 || grams[i] != grams[unique - 1]) {
+                    grams[unique++] = grams[i];
+                }
+            }
+            return Arrays.copyOf(grams, unique);
+        }
+    }
+}
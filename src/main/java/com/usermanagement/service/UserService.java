@@ -1,17 +1,40 @@
 package com.usermanagement.service;
 
+import com.usermanagement.dto.BulkImportResult;
+import com.usermanagement.dto.UserBatch;
 import com.usermanagement.dto.UserDTO;
+import com.usermanagement.dto.UserListVersion;
+import com.usermanagement.dto.UserPage;
+import com.usermanagement.dto.UserSearchResult;
 import com.usermanagement.model.User;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserDTO createUser(UserDTO userDTO);
+    BulkImportResult createUsers(List<UserDTO> userDTOs);
+    BulkImportResult createUsers(List<UserDTO> userDTOs, Map<Integer, String> rejectedRows);
     UserDTO getUserById(Long id);
+    Long getUserVersion(Long id);
+    UserBatch getUsersByIds(List<Long> ids);
     List<UserDTO> getAllUsers();
     List<UserDTO> getUsersByStatus(User.UserStatus status);
+    UserPage getUsersPage(User.UserStatus status, String cursor, int limit);
+    UserListVersion getUserListVersion(User.UserStatus status);
+    void exportUsers(User.UserStatus status, Consumer<UserDTO> consumer);
     UserDTO updateUser(Long id, UserDTO userDTO);
+    Long patchUser(Long id, Map<String, Object> changes, Long expectedVersion);
     void deleteUser(Long id);
     long getUserCount();
+    long getUserCount(User.UserStatus status);
+    Map<String, Object> getUserCountBreakdown();
     boolean isUsernameAvailable(String username);
     boolean isEmailAvailable(String email);
+    void rebuildAvailabilityIndex();
+    Map<String, Object> getAvailabilityIndexStats();
+    UserSearchResult searchUsers(String query, int limit);
+    void rebuildSearchIndex();
+    Map<String, Object> getSearchIndexStats();
+    Map<String, Object> getCacheStatistics();
 }
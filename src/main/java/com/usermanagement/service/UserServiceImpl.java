@@ -1,15 +1,44 @@
 package com.usermanagement.service;
 
+import com.usermanagement.dao.UserChangeDAO;
 import com.usermanagement.dao.UserDAO;
+import com.usermanagement.dto.BulkImportResult;
+import com.usermanagement.dto.UserBatch;
+import com.usermanagement.dto.UserCursor;
 import com.usermanagement.dto.UserDTO;
+import com.usermanagement.dto.UserListVersion;
+import com.usermanagement.dto.UserPage;
+import com.usermanagement.dto.UserSearchResult;
 import com.usermanagement.exception.UserNotFoundException;
+import com.usermanagement.exception.UserVersionConflictException;
 import com.usermanagement.model.User;
+import com.usermanagement.model.UserChange;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service("userService")
@@ -17,59 +46,306 @@ public class UserServiceImpl implements UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final int MAX_BATCH_IDS = 1000;
+
+    private static final Set<String> PATCHABLE_FIELDS = new HashSet<>(Arrays.asList(
+            "username", "email", "password", "firstName", "lastName", "phoneNumber", "status", "role"));
+
     private UserDAO userDAO;
 
+    private TransactionTemplate transactionTemplate;
+
+    private Validator validator;
+
+    private int importChunkSize = 1000;
+
+    private UserAvailabilityIndex availabilityIndex;
+
+    private UserSearchIndex searchIndex;
+
+    private UserCounters userCounters;
+
+    private UserChangeDAO userChangeDAO;
+
+    // One statement per write: no duplicate pre-checks or pre-reads
+    private boolean singleStatementWrites = false;
+
     public void setUserDAO(UserDAO userDAO) {
         this.userDAO = userDAO;
     }
 
+    public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void setValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    public void setImportChunkSize(int importChunkSize) {
+        this.importChunkSize = importChunkSize;
+    }
+
+    public void setAvailabilityIndex(UserAvailabilityIndex availabilityIndex) {
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    public void setSearchIndex(UserSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    public void setUserCounters(UserCounters userCounters) {
+        this.userCounters = userCounters;
+    }
+
+    public void setUserChangeDAO(UserChangeDAO userChangeDAO) {
+        this.userChangeDAO = userChangeDAO;
+    }
+
+    public void setSingleStatementWrites(boolean singleStatementWrites) {
+        this.singleStatementWrites = singleStatementWrites;
+    }
+
     @Override
     @Transactional
     public UserDTO createUser(UserDTO userDTO) {
         logger.info("Creating new user with username: {}", userDTO.getUsername());
 
-        if (userDAO.existsByUsername(userDTO.getUsername())) {
-            throw new IllegalArgumentException("Username already exists: " + userDTO.getUsername());
-        }
+        if (!singleStatementWrites) {
+            if (usernameExists(userDTO.getUsername())) {
+                throw new IllegalArgumentException("Username already exists: " + userDTO.getUsername());
+            }
 
-        if (userDAO.existsByEmail(userDTO.getEmail())) {
-            throw new IllegalArgumentException("Email already exists: " + userDTO.getEmail());
+            if (emailExists(userDTO.getEmail())) {
+                throw new IllegalArgumentException("Email already exists: " + userDTO.getEmail());
+            }
         }
 
         User user = userDTO.toEntity();
-        User savedUser = userDAO.save(user);
+        User savedUser;
+        try {
+            savedUser = userDAO.save(user);
+        } catch (PersistenceException e) {
+            throw translateDuplicate(e, userDTO.getUsername(), userDTO.getEmail());
+        }
+        availabilityIndex.add(savedUser.getUsername(), savedUser.getEmail());
+        searchIndex.put(savedUser);
+        userCounters.recordCreated(savedUser.getStatus(), savedUser.getRole());
+        userChangeDAO.record(savedUser.getId(), savedUser.getVersion(), UserChange.Operation.CREATE, null);
         logger.info("User created successfully with ID: {}", savedUser.getId());
 
         return new UserDTO(savedUser);
     }
 
+    @Override
+    public BulkImportResult createUsers(List<UserDTO> userDTOs) {
+        return createUsers(userDTOs, Collections.emptyMap());
+    }
+
+    @Override
+    public BulkImportResult createUsers(List<UserDTO> userDTOs, Map<Integer, String> rejectedRows) {
+        logger.info("Importing {} users in chunks of {}", userDTOs.size(), importChunkSize);
+
+        BulkImportResult result = new BulkImportResult();
+        result.setTotal(userDTOs.size());
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+
+        for (int start = 0; start < userDTOs.size(); start += importChunkSize) {
+            int end = Math.min(start + importChunkSize, userDTOs.size());
+            importChunk(userDTOs, rejectedRows, start, end, seenUsernames, seenEmails, result);
+        }
+
+        logger.info("Import finished: {} created, {} failed", result.getCreated(), result.getFailed());
+        return result;
+    }
+
+    private void importChunk(List<UserDTO> userDTOs, Map<Integer, String> rejectedRows, int start, int end,
+                             Set<String> seenUsernames, Set<String> seenEmails,
+                             BulkImportResult result) {
+        List<User> candidates = new ArrayList<>();
+        List<Integer> candidateRows = new ArrayList<>();
+
+        for (int i = start; i < end; i++) {
+            UserDTO userDTO = userDTOs.get(i);
+            String rejected = rejectedRows.get(i + 1);
+            if (rejected != null) {
+                result.addError(i + 1, userDTO.getUsername(), rejected);
+                continue;
+            }
+            User user = userDTO.toEntity();
+            user.setId(null);
+
+            Set<ConstraintViolation<User>> violations = validator.validate(user);
+            if (!violations.isEmpty()) {
+                result.addError(i + 1, userDTO.getUsername(), violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+
+            String username = normalize(user.getUsername());
+            String email = normalize(user.getEmail());
+            if (seenUsernames.contains(username)) {
+                result.addError(i + 1, user.getUsername(), "Duplicate username in import: " + user.getUsername());
+                continue;
+            }
+            if (seenEmails.contains(email)) {
+                result.addError(i + 1, user.getUsername(), "Duplicate email in import: " + user.getEmail());
+                continue;
+            }
+            seenUsernames.add(username);
+            seenEmails.add(email);
+
+            candidates.add(user);
+            candidateRows.add(i + 1);
+        }
+
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> conflictRows = new HashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> existingUsernames = new HashSet<>();
+                Set<String> existingEmails = new HashSet<>();
+                for (Object[] pair : userDAO.findUsernameEmailPairs(
+                        candidates.stream().map(User::getUsername).collect(Collectors.toList()),
+                        candidates.stream().map(User::getEmail).collect(Collectors.toList()))) {
+                    existingUsernames.add(normalize((String) pair[0]));
+                    existingEmails.add(normalize((String) pair[1]));
+                }
+
+                List<User> toSave = new ArrayList<>();
+                for (int i = 0; i < candidates.size(); i++) {
+                    User user = candidates.get(i);
+                    int row = candidateRows.get(i);
+                    if (existingUsernames.contains(normalize(user.getUsername()))) {
+                        result.addError(row, user.getUsername(), "Username already exists: " + user.getUsername());
+                        conflictRows.add(row);
+                    } else if (existingEmails.contains(normalize(user.getEmail()))) {
+                        result.addError(row, user.getUsername(), "Email already exists: " + user.getEmail());
+                        conflictRows.add(row);
+                    } else {
+                        toSave.add(user);
+                    }
+                }
+
+                userDAO.saveAll(toSave);
+                userChangeDAO.recordAll(toSave, UserChange.Operation.CREATE);
+                for (User user : toSave) {
+                    availabilityIndex.add(user.getUsername(), user.getEmail());
+                    searchIndex.put(user);
+                    userCounters.recordCreated(user.getStatus(), user.getRole());
+                }
+            });
+            result.addCreated(candidates.size() - conflictRows.size());
+        } catch (RuntimeException e) {
+            logger.warn("Import chunk of rows {}-{} failed: {}", start + 1, end, e.getMessage());
+            for (int i = 0; i < candidates.size(); i++) {
+                if (!conflictRows.contains(candidateRows.get(i))) {
+                    result.addError(candidateRows.get(i), candidates.get(i).getUsername(),
+                            "Chunk rolled back: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public UserDTO getUserById(Long id) {
         logger.debug("Fetching user with ID: {}", id);
-        User user = userDAO.findById(id)
+        return userDAO.findDTOById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
-        return new UserDTO(user);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long getUserVersion(Long id) {
+        return userDAO.findVersionById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserBatch getUsersByIds(List<Long> ids) {
+        logger.debug("Fetching {} users by ID", ids.size());
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids can be fetched at once");
+        }
+
+        Map<Long, UserDTO> found = new HashMap<>();
+        for (User user : userDAO.findAllByIds(ids)) {
+            found.put(user.getId(), new UserDTO(user));
+        }
+
+        List<UserDTO> users = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            UserDTO user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new UserBatch(users, missingIds);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
         logger.debug("Fetching all users");
-        List<User> users = userDAO.findAll();
-        return users.stream()
-                .map(UserDTO::new)
-                .collect(Collectors.toList());
+        return userDAO.findAllDTOs();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<UserDTO> getUsersByStatus(User.UserStatus status) {
         logger.debug("Fetching users with status: {}", status);
-        List<User> users = userDAO.findByStatus(status);
-        return users.stream()
-                .map(UserDTO::new)
-                .collect(Collectors.toList());
+        return userDAO.findDTOsByStatus(status);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserPage getUsersPage(User.UserStatus status, String cursor, int limit) {
+        int pageSize = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        UserCursor after = UserCursor.decode(cursor);
+        logger.debug("Fetching users page: status={}, cursor={}, limit={}", status, cursor, pageSize);
+
+        // Fetch one extra row to find out whether another page follows
+        List<UserDTO> users = userDAO.findPage(status,
+                after != null ? after.getCreatedAt() : null,
+                after != null ? after.getId() : null,
+                pageSize + 1);
+
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextCursor = UserCursor.of(users.get(pageSize - 1)).encode();
+        }
+        return new UserPage(users, nextCursor, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserListVersion getUserListVersion(User.UserStatus status) {
+        return userDAO.findListVersion(status);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(User.UserStatus status, Consumer<UserDTO> consumer) {
+        logger.info("Exporting users with status: {}", status);
+        userDAO.streamByStatus(status, consumer);
     }
 
     @Override
@@ -77,19 +353,31 @@ public class UserServiceImpl implements UserService {
     public UserDTO updateUser(Long id, UserDTO userDTO) {
         logger.info("Updating user with ID: {}", id);
 
+        if (singleStatementWrites) {
+            return updateInPlace(id, userDTO);
+        }
+
         User existingUser = userDAO.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
 
+        if (userDTO.getVersion() != null && !userDTO.getVersion().equals(existingUser.getVersion())) {
+            throw new UserVersionConflictException("User " + id + " was modified concurrently");
+        }
+
         if (!existingUser.getUsername().equals(userDTO.getUsername()) &&
-                userDAO.existsByUsername(userDTO.getUsername())) {
+                usernameExists(userDTO.getUsername())) {
             throw new IllegalArgumentException("Username already exists: " + userDTO.getUsername());
         }
 
         if (!existingUser.getEmail().equals(userDTO.getEmail()) &&
-                userDAO.existsByEmail(userDTO.getEmail())) {
+                emailExists(userDTO.getEmail())) {
             throw new IllegalArgumentException("Email already exists: " + userDTO.getEmail());
         }
 
+        User.UserStatus oldStatus = existingUser.getStatus();
+        User.UserRole oldRole = existingUser.getRole();
+        List<String> changedFields = changedFields(existingUser, userDTO);
+
         existingUser.setUsername(userDTO.getUsername());
         existingUser.setEmail(userDTO.getEmail());
         existingUser.setFirstName(userDTO.getFirstName());
@@ -108,40 +396,286 @@ public class UserServiceImpl implements UserService {
             existingUser.setRole(userDTO.getRole());
         }
 
-        User updatedUser = userDAO.update(existingUser);
+        User updatedUser;
+        try {
+            updatedUser = userDAO.update(existingUser);
+        } catch (PersistenceException e) {
+            if (isOptimisticLockFailure(e)) {
+                // Another writer committed between our read and the versioned UPDATE
+                throw new UserVersionConflictException("User " + id + " was modified concurrently");
+            }
+            throw translateDuplicate(e, userDTO.getUsername(), userDTO.getEmail());
+        }
+        availabilityIndex.add(updatedUser.getUsername(), updatedUser.getEmail());
+        searchIndex.put(updatedUser);
+        userCounters.recordChanged(oldStatus, oldRole, updatedUser.getStatus(), updatedUser.getRole());
+        userChangeDAO.record(id, updatedUser.getVersion(), UserChange.Operation.UPDATE, changedFields);
         logger.info("User updated successfully with ID: {}", updatedUser.getId());
 
         return new UserDTO(updatedUser);
     }
 
+    @Override
+    @Transactional
+    public Long patchUser(Long id, Map<String, Object> changes, Long expectedVersion) {
+        logger.info("Patching user with ID: {}, fields: {}", id, changes.keySet());
+
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String field = change.getKey();
+            if (!PATCHABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Field cannot be updated: " + field);
+            }
+            Object value = toFieldValue(field, change.getValue());
+
+            Set<ConstraintViolation<User>> violations = validator.validateValue(User.class, field, value);
+            if (!violations.isEmpty()) {
+                throw new IllegalArgumentException(field + ": " + violations.iterator().next().getMessage());
+            }
+            fields.put(field, value);
+        }
+        fields.put("updatedAt", LocalDateTime.now());
+
+        String username = (String) fields.get("username");
+        String email = (String) fields.get("email");
+        Long newVersion;
+        try {
+            newVersion = userDAO.updateFields(id, fields, expectedVersion);
+        } catch (PersistenceException e) {
+            if (isOptimisticLockFailure(e)) {
+                throw new UserVersionConflictException("User " + id + " was modified concurrently");
+            }
+            throw translateDuplicate(e, username, email);
+        }
+
+        if (newVersion == null) {
+            if (expectedVersion != null && userDAO.existsById(id)) {
+                throw new UserVersionConflictException("User " + id + " was modified concurrently");
+            }
+            throw new UserNotFoundException("User not found with id: " + id);
+        }
+
+        if (username != null || email != null) {
+            availabilityIndex.add(username, email);
+        }
+        searchIndex.patch(id, fields);
+        if (fields.containsKey("status") || fields.containsKey("role")) {
+            userCounters.recordChangedUnknown();
+        }
+        userChangeDAO.record(id, newVersion, UserChange.Operation.UPDATE, changes.keySet());
+        logger.info("User patched successfully with ID: {}", id);
+
+        return newVersion;
+    }
+
+    private static Object toFieldValue(String field, Object value) {
+        if ("status".equals(field) || "role".equals(field)) {
+            if (value == null) {
+                throw new IllegalArgumentException(field + " must not be null");
+            }
+            String name = value.toString().toUpperCase(Locale.ROOT);
+            return "status".equals(field) ? User.UserStatus.valueOf(name) : User.UserRole.valueOf(name);
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    private UserDTO updateInPlace(Long id, UserDTO userDTO) {
+        User changes = userDTO.toEntity();
+        changes.setId(id);
+        changes.setStatus(userDTO.getStatus());
+        changes.setRole(userDTO.getRole());
+        if (userDTO.getPassword() == null || userDTO.getPassword().isEmpty()) {
+            changes.setPassword(null);
+        }
+        changes.setUpdatedAt(LocalDateTime.now());
+
+        int updated;
+        try {
+            updated = userDAO.updateInPlace(changes, userDTO.getVersion());
+        } catch (PersistenceException e) {
+            throw translateDuplicate(e, userDTO.getUsername(), userDTO.getEmail());
+        }
+
+        if (updated == 0) {
+            // Only the failure path pays for the extra read
+            if (userDTO.getVersion() != null && userDAO.existsById(id)) {
+                throw new UserVersionConflictException("User " + id + " was modified concurrently");
+            }
+            throw new UserNotFoundException("User not found with id: " + id);
+        }
+
+        availabilityIndex.add(changes.getUsername(), changes.getEmail());
+        searchIndex.put(changes);
+        if (changes.getStatus() != null || changes.getRole() != null) {
+            userCounters.recordChangedUnknown();
+        }
+        Long newVersion = userDTO.getVersion() != null ? userDTO.getVersion() + 1 : null;
+        userChangeDAO.record(id, newVersion, UserChange.Operation.UPDATE, suppliedFields(changes));
+        logger.info("User updated successfully with ID: {}", id);
+
+        UserDTO result = new UserDTO(changes);
+        result.setVersion(newVersion);
+        return result;
+    }
+
+    /** Fields a full update will change; password is only ever reported by name. */
+    private static List<String> changedFields(User existing, UserDTO update) {
+        List<String> fields = new ArrayList<>();
+        if (!Objects.equals(existing.getUsername(), update.getUsername())) fields.add("username");
+        if (!Objects.equals(existing.getEmail(), update.getEmail())) fields.add("email");
+        if (!Objects.equals(existing.getFirstName(), update.getFirstName())) fields.add("firstName");
+        if (!Objects.equals(existing.getLastName(), update.getLastName())) fields.add("lastName");
+        if (!Objects.equals(existing.getPhoneNumber(), update.getPhoneNumber())) fields.add("phoneNumber");
+        if (update.getPassword() != null && !update.getPassword().isEmpty()) fields.add("password");
+        if (update.getStatus() != null && update.getStatus() != existing.getStatus()) fields.add("status");
+        if (update.getRole() != null && update.getRole() != existing.getRole()) fields.add("role");
+        return fields;
+    }
+
+    /** Fields an in-place update writes; without a prior read, every supplied field counts as changed. */
+    private static List<String> suppliedFields(User changes) {
+        List<String> fields = new ArrayList<>(Arrays.asList("username", "email", "firstName", "lastName", "phoneNumber"));
+        if (changes.getPassword() != null) fields.add("password");
+        if (changes.getStatus() != null) fields.add("status");
+        if (changes.getRole() != null) fields.add("role");
+        return fields;
+    }
+
+    private static boolean isOptimisticLockFailure(PersistenceException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RuntimeException translateDuplicate(PersistenceException e, String username, String email) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                ConstraintViolationException violation = (ConstraintViolationException) cause;
+                String constraint = String.valueOf(violation.getConstraintName()).toLowerCase(Locale.ROOT);
+                // Older schemas also carry Hibernate-named unique keys, so fall back to the duplicate value
+                String message = String.valueOf(violation.getSQLException().getMessage()).toLowerCase(Locale.ROOT);
+                if (username != null && (constraint.contains("uk_username")
+                        || message.contains("'" + normalize(username) + "'"))) {
+                    return new IllegalArgumentException("Username already exists: " + username);
+                }
+                if (email != null && (constraint.contains("uk_email")
+                        || message.contains("'" + normalize(email) + "'"))) {
+                    return new IllegalArgumentException("Email already exists: " + email);
+                }
+            }
+        }
+        return e;
+    }
+
     @Override
     @Transactional
     public void deleteUser(Long id) {
         logger.info("Deleting user with ID: {}", id);
 
-        if (!userDAO.findById(id).isPresent()) {
-            throw new UserNotFoundException("User not found with id: " + id);
+        if (singleStatementWrites) {
+            if (userDAO.deleteById(id) == 0) {
+                throw new UserNotFoundException("User not found with id: " + id);
+            }
+            userCounters.recordDeletedUnknown();
+            searchIndex.remove(id);
+            userChangeDAO.record(id, null, UserChange.Operation.DELETE, null);
+            logger.info("User deleted successfully with ID: {}", id);
+            return;
         }
 
+        User user = userDAO.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
+
         userDAO.delete(id);
+        userCounters.recordDeleted(user.getStatus(), user.getRole());
+        searchIndex.remove(id);
+        userChangeDAO.record(id, null, UserChange.Operation.DELETE, null);
         logger.info("User deleted successfully with ID: {}", id);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public long getUserCount() {
-        return userDAO.count();
+        return userCounters.getTotal();
+    }
+
+    @Override
+    public long getUserCount(User.UserStatus status) {
+        return userCounters.getCount(status);
+    }
+
+    @Override
+    public Map<String, Object> getUserCountBreakdown() {
+        return userCounters.getBreakdown();
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean isUsernameAvailable(String username) {
-        return !userDAO.existsByUsername(username);
+        return !usernameExists(username);
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean isEmailAvailable(String email) {
-        return !userDAO.existsByEmail(email);
+        return !emailExists(email);
+    }
+
+    @Override
+    public void rebuildAvailabilityIndex() {
+        availabilityIndex.rebuild();
+    }
+
+    @Override
+    public Map<String, Object> getAvailabilityIndexStats() {
+        return availabilityIndex.getStats();
+    }
+
+    @Override
+    public UserSearchResult searchUsers(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    @Override
+    public void rebuildSearchIndex() {
+        searchIndex.rebuild();
+    }
+
+    @Override
+    public Map<String, Object> getSearchIndexStats() {
+        return searchIndex.getStats();
+    }
+
+    @Override
+    public Map<String, Object> getCacheStatistics() {
+        return userDAO.getCacheStatistics();
+    }
+
+    private boolean usernameExists(String username) {
+        if (!availabilityIndex.mightContainUsername(username)) {
+            return false;
+        }
+        boolean exists = userDAO.existsByUsername(username);
+        if (!exists) {
+            availabilityIndex.recordFalsePositive();
+        }
+        return exists;
+    }
+
+    private boolean emailExists(String email) {
+        if (!availabilityIndex.mightContainEmail(email)) {
+            return false;
+        }
+        boolean exists = userDAO.existsByEmail(email);
+        if (!exists) {
+            availabilityIndex.recordFalsePositive();
+        }
+        return exists;
     }
 }
@@ -82,10 +82,28 @@
         </tbody>
     </table>
 
+    <div class="pagination">
+        <c:if test="${not firstPage}">
+            <c:url var="firstPageUrl" value="/users">
+                <c:param name="status" value="${filterStatus}"/>
+                <c:param name="limit" value="${pageSize}"/>
+            </c:url>
+            <a href="${firstPageUrl}" class="btn btn-secondary">First Page</a>
+        </c:if>
+        <c:if test="${not empty nextCursor}">
+            <c:url var="nextPageUrl" value="/users">
+                <c:param name="status" value="${filterStatus}"/>
+                <c:param name="cursor" value="${nextCursor}"/>
+                <c:param name="limit" value="${pageSize}"/>
+            </c:url>
+            <a href="${nextPageUrl}" class="btn btn-primary">Next Page</a>
+        </c:if>
+    </div>
+
     <div class="api-info">
         <h3>REST API Endpoints</h3>
         <ul>
-            <li>GET /api/users - Get all users</li>
+            <li>GET /api/users?cursor=&amp;limit= - Get a page of users</li>
             <li>GET /api/users/{id} - Get user by ID</li>
             <li>POST /api/users - Create new user</li>
             <li>PUT /api/users/{id} - Update user</li>
@@ -0,0 +1,87 @@
+package com.usermanagement;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.support.GenericXmlApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * One application node: applicationContext.xml started over an in-memory H2
+ * database. Several nodes may share a database by using the same URL, as
+ * nodes share MySQL in production.
+ */
+public final class TestNode implements AutoCloseable {
+
+    private final GenericXmlApplicationContext context = new GenericXmlApplicationContext();
+
+    private final Map<String, String> properties = new HashMap<>();
+
+    private TestNode(String databaseUrl) {
+        properties.put("db.driver", "org.h2.Driver");
+        properties.put("db.url", databaseUrl);
+        properties.put("db.username", "sa");
+        properties.put("db.password", "");
+        properties.put("db.replica.urls", "");
+        properties.put("db.streamFetchSize", "100");
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        // Nodes after the first see the schema already there; update leaves it alone
+        properties.put("hibernate.hbm2ddl.auto", "update");
+        properties.put("hibernate.show_sql", "false");
+        properties.put("hibernate.format_sql", "false");
+        properties.put("admission.enabled", "false");
+    }
+
+    /** A node on the shared in-memory database {@code name}, not started yet. */
+    public static TestNode on(String name) {
+        return new TestNode("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+    }
+
+    /** Overrides a database.properties entry for this node. */
+    public TestNode with(String key, String value) {
+        properties.put(key, value);
+        return this;
+    }
+
+    /**
+     * Starts the node. Each node gets its own second-level cache regions;
+     * without a prefix they would share the JVM-wide JCache manager.
+     */
+    public TestNode start(String cachePrefix) {
+        context.addBeanFactoryPostProcessor(hibernateProperty("hibernate.cache.region_prefix", cachePrefix));
+        // The placeholders read system properties first, and only while the context starts
+        Map<String, String> previous = new HashMap<>();
+        properties.forEach((key, value) -> previous.put(key, System.setProperty(key, value)));
+        try {
+            context.load("classpath:applicationContext.xml");
+            context.refresh();
+        } finally {
+            previous.forEach((key, value) -> {
+                if (value == null) {
+                    System.clearProperty(key);
+                } else {
+                    System.setProperty(key, value);
+                }
+            });
+        }
+        return this;
+    }
+
+    public <T> T bean(String name, Class<T> type) {
+        return context.getBean(name, type);
+    }
+
+    private static BeanFactoryPostProcessor hibernateProperty(String key, String value) {
+        return beanFactory -> {
+            Object hibernateProperties = beanFactory.getBeanDefinition("sessionFactory")
+                    .getPropertyValues().get("hibernateProperties");
+            ((Properties) hibernateProperties).setProperty(key, value);
+        };
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,91 @@
+package com.usermanagement.service;
+
+import com.usermanagement.TestNode;
+import com.usermanagement.dto.UserBatch;
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.dto.UserSearchHit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two nodes on one primary database. Node B also has a replica that stopped
+ * replicating before node A's update, so anything B reads from it is stale.
+ */
+class UserChangePollerTest {
+
+    private static final String PRIMARY = "jdbc:h2:mem:poller;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA = "jdbc:h2:mem:poller-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @TempDir
+    Path temp;
+
+    private TestNode nodeA;
+    private TestNode nodeB;
+
+    @AfterEach
+    void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void changeFromAnotherNodeIsReloadedFromThePrimary() throws SQLException {
+        nodeA = TestNode.on("poller").start("node-a");
+        UserService usersOnA = nodeA.bean("userService", UserService.class);
+        Long id = usersOnA.createUser(newUser("polled", "Before")).getId();
+
+        copyDatabase(PRIMARY, REPLICA);
+        nodeB = TestNode.on("poller").with("db.replica.urls", REPLICA).start("node-b");
+
+        usersOnA.patchUser(id, Collections.singletonMap("lastName", "After"), null);
+        nodeB.bean("userChangePoller", UserChangePoller.class).poll();
+
+        // Both are filled by the poller, so they show which database it read
+        UserBatch cached = nodeB.bean("userService", UserService.class)
+                .getUsersByIds(Collections.singletonList(id));
+        assertEquals("After", cached.getUsers().get(0).getLastName());
+        List<String> indexed = nodeB.bean("userSearchIndex", UserSearchIndex.class)
+                .search("polled", 10).getUsers().stream()
+                .map(UserSearchHit::getLastName)
+                .collect(Collectors.toList());
+        assertEquals(Collections.singletonList("After"), indexed);
+    }
+
+    private void copyDatabase(String from, String to) throws SQLException {
+        String script = temp.resolve("snapshot.sql").toString().replace('\\', '/');
+        try (Connection source = DriverManager.getConnection(from, "sa", "");
+             Statement statement = source.createStatement()) {
+            statement.execute("SCRIPT TO '" + script + "'");
+        }
+        try (Connection target = DriverManager.getConnection(to, "sa", "");
+             Statement statement = target.createStatement()) {
+            statement.execute("RUNSCRIPT FROM '" + script + "'");
+        }
+    }
+
+    private static UserDTO newUser(String username, String lastName) {
+        UserDTO user = new UserDTO();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setFirstName("Test");
+        user.setLastName(lastName);
+        user.setPassword("secret1");
+        return user;
+    }
+}
@@ -0,0 +1,148 @@
+package com.usermanagement.service;
+
+import com.usermanagement.TestNode;
+import com.usermanagement.dto.UserDTO;
+import com.usermanagement.metrics.SqlStatementCounter;
+import com.usermanagement.model.User;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the budgeted UserService methods with query.budget.failOnExceed, so a
+ * call over its budget in applicationContext.xml throws
+ * QueryBudgetExceededException. Caches are cleared before each call to
+ * measure the cold-cache case the budgets are written for.
+ */
+class UserServiceQueryBudgetTest {
+
+    private static final AtomicInteger names = new AtomicInteger();
+
+    private static TestNode node;
+
+    private static UserService userService;
+
+    @BeforeAll
+    static void startNode() {
+        node = TestNode.on("budgets").with("query.budget.failOnExceed", "true").start("budgets");
+        userService = node.bean("userService", UserService.class);
+    }
+
+    @AfterAll
+    static void stopNode() {
+        node.close();
+    }
+
+    @BeforeEach
+    void coldCaches() {
+        node.bean("sessionFactory", SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void createUser() {
+        UserDTO created = userService.createUser(newUser());
+        assertEquals(0L, created.getVersion());
+    }
+
+    @Test
+    void getUserById() {
+        Long id = existingUser();
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        userService.getUserById(id);
+        scope.assertAtMost(1, "getUserById");
+        userService.getUserById(id);
+        scope.assertAtMost(1, "getUserById twice");
+    }
+
+    @Test
+    void getUserVersion() {
+        assertEquals(0L, userService.getUserVersion(existingUser()));
+    }
+
+    @Test
+    void getUsersPage() {
+        existingUser();
+        coldCaches();
+        assertFalse(userService.getUsersPage(User.UserStatus.ACTIVE, null, 20).getUsers().isEmpty());
+    }
+
+    @Test
+    void getUserListVersion() {
+        existingUser();
+        coldCaches();
+        userService.getUserListVersion(null);
+        userService.getUserListVersion(User.UserStatus.ACTIVE);
+    }
+
+    @Test
+    void getUserCount() {
+        existingUser();
+        coldCaches();
+        assertTrue(userService.getUserCount() > 0);
+    }
+
+    @Test
+    void availabilityChecks() {
+        UserDTO user = userService.createUser(newUser());
+        coldCaches();
+        assertFalse(userService.isUsernameAvailable(user.getUsername()));
+        assertFalse(userService.isEmailAvailable(user.getEmail()));
+        assertTrue(userService.isUsernameAvailable("nobody" + names.incrementAndGet()));
+        assertTrue(userService.isEmailAvailable("nobody" + names.incrementAndGet() + "@example.com"));
+    }
+
+    @Test
+    void searchUsers() {
+        UserDTO user = userService.createUser(newUser());
+        coldCaches();
+        assertEquals(1, userService.searchUsers(user.getUsername(), 10).getUsers().size());
+    }
+
+    @Test
+    void updateUserRenames() {
+        Long id = existingUser();
+        coldCaches();
+        UserDTO changes = newUser();
+        changes.setLastName("Renamed");
+        assertEquals("Renamed", userService.updateUser(id, changes).getLastName());
+    }
+
+    @Test
+    void patchUser() {
+        Long id = existingUser();
+        coldCaches();
+        assertEquals(1L, userService.patchUser(id, Collections.singletonMap("lastName", "Patched"), 0L));
+    }
+
+    @Test
+    void deleteUser() {
+        Long id = existingUser();
+        coldCaches();
+        userService.deleteUser(id);
+        assertTrue(userService.getUsersByIds(Collections.singletonList(id)).getUsers().isEmpty());
+    }
+
+    private static Long existingUser() {
+        return userService.createUser(newUser()).getId();
+    }
+
+    private static UserDTO newUser() {
+        String name = "budget" + names.incrementAndGet();
+        UserDTO user = new UserDTO();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setFirstName("Query");
+        user.setLastName("Budget");
+        user.setPassword("secret1");
+        return user;
+    }
+}